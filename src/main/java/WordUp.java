@@ -1,7 +1,11 @@
 import dictionary.Bank;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
+import reminder.ReminderPopup;
+import reminder.ReminderScheduler;
 import scene.MainScene;
+import storage.ExcelFileWatcher;
 import storage.Storage;
 import ui.Ui;
 
@@ -12,24 +16,29 @@ public class WordUp extends Application {
     public Storage storage;
     public Bank bank;
     private Stage window;
+    private ExcelFileWatcher excelFileWatcher;
+    private ReminderScheduler reminderScheduler;
 
     public static void main(String[] args) {
         launch(args);
     }
 
     /**
-     * Constructor of the word up containing UI, storage, and word bank.
+     * Constructor of the word up containing UI, storage, reminder scheduler and word bank.
      */
     public WordUp() {
         ui = new Ui();
         storage = new Storage();
-        bank = storage.loadExcelFile();             //loads value of word bank into bank
-        storage.loadRemindersFile();
+        reminderScheduler = new ReminderScheduler(reminders -> Platform.runLater(() ->
+                new ReminderPopup(reminders, storage)));
+        storage.setReminderScheduler(reminderScheduler);
+        bank = storage.loadBankAndReminders();      //loads word bank and reminders together
     }
 
     @Override
     public void start(Stage stage) {
         window = stage;
+        excelFileWatcher = storage.watchExcelFile(bank, Platform::runLater);
         window.setScene(new MainScene(ui, bank, storage, window).getScene());
         window.show();
 
@@ -39,4 +48,17 @@ public class WordUp extends Application {
         window.setMinHeight(600.0);
         window.setMinWidth(400.0);
     }
+
+    /**
+     * Stops watching the excel file and showing reminders, and waits for all changes to be saved,
+     * and the excel file to be exported, when the window is closed.
+     */
+    @Override
+    public void stop() {
+        if (excelFileWatcher != null) {
+            excelFileWatcher.stop();
+        }
+        reminderScheduler.cancel();
+        storage.flushAndExport(bank);
+    }
 }
\ No newline at end of file
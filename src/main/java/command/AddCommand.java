@@ -4,6 +4,7 @@ import dictionary.Word;
 import dictionary.Bank;
 import exception.WordAlreadyExistsException;
 import storage.Storage;
+import storage.StorageTransaction;
 import ui.Ui;
 
 /**
@@ -19,8 +20,10 @@ public class AddCommand extends Command {
     public String execute(Ui ui, Bank bank, Storage storage) {
         try {
             bank.addWordToBank(word);
-            storage.writeFile(word.toString(), true, "wordup");
-            storage.writeExcelFile(bank);
+            StorageTransaction transaction = storage.beginTransaction();
+            transaction.writeFile(word.toString(), true, "wordup");
+            transaction.writeChanges(bank);
+            transaction.commit();
             return ui.showAdded(word);
         } catch (WordAlreadyExistsException e) {
             return e.showError();
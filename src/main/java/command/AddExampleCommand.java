@@ -22,7 +22,7 @@ public class AddExampleCommand extends Command {
     public String execute(Ui ui, Bank bank, Storage storage) {
         try {
             bank.addExampleToWord(this.wordDescription, this.example);
-            storage.writeExcelFile(bank);
+            storage.writeChanges(bank);
             return ui.showAddExample(this.wordDescription, this.example);
         } catch (NoWordFoundException e) {
             return e.showError();
@@ -20,7 +20,7 @@ public class AddSynonymCommand extends Command {
     public String execute(Ui ui, Bank bank, Storage storage) {
         try {
             ArrayList<String> synonymHashSet = bank.addWordToSomeSynonyms(wordDescription, synonyms);
-            storage.writeSynonymBankExcelFile(bank.getSynonymBank());
+            storage.writeChanges(bank);
             return ui.showAddSynonym(wordDescription, synonyms, synonymHashSet);
         } catch (NoWordFoundException e) {
             return e.showError();
@@ -3,6 +3,7 @@ package command;
 import dictionary.Bank;
 import exception.NoWordFoundException;
 import storage.Storage;
+import storage.StorageTransaction;
 import ui.Ui;
 
 import java.util.ArrayList;
@@ -37,23 +38,16 @@ public class DeleteCommand extends Command {
             word = bank.getWordFromWordBank(this.deletedWord);
             if (tags.size() == 0) {                     //delete word
                 bank.deleteWordFromBank(word);
-                storage.updateFile(word.toString() + "\r","", "wordup");
-
-                int initWordBankSize = bank.getWordBankSize();
-                int initTagBankSize = bank.getTagBankSize();
-
-                storage.writeExcelFile(bank);
-                storage.deleteRowsWordBankSheet(bank.getWordBankSize(), initWordBankSize);
-                storage.deleteRowsTagBankSheet(bank.getTagBankSize(), initTagBankSize);
-
+                StorageTransaction transaction = storage.beginTransaction();
+                transaction.updateFile(word.toString(), "", "wordup");
+                transaction.writeChanges(bank);
+                transaction.commit();
                 return ui.showDeleted(word);
             } else {                                    //delete tags
                 ArrayList<String> nullTags = new ArrayList<>();
                 ArrayList<String> deletedTags = new ArrayList<>();
-                int initTagBankSize = bank.getTagBankSize();
                 bank.deleteTags(deletedWord, tags, deletedTags, nullTags);
-                storage.writeTagBankExcelFile(bank.getTagBank());
-                storage.deleteRowsTagBankSheet(bank.getTagBankSize(), initTagBankSize);
+                storage.writeChanges(bank);
                 String returned = ui.showDeletedTags(deletedWord, deletedTags);
                 returned += ui.showNullTags(deletedWord, nullTags);
                 return returned;
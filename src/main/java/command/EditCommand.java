@@ -4,6 +4,7 @@ import dictionary.Word;
 import dictionary.Bank;
 import exception.NoWordFoundException;
 import storage.Storage;
+import storage.StorageTransaction;
 import ui.Ui;
 
 /**
@@ -25,8 +26,12 @@ public class EditCommand extends Command {
         try {
             String oldString = bank.getWordFromWordBank(wordToBeEdited).toString(); //get the original word
             Word newWord = bank.editWordMeaning(wordToBeEdited, newMeaning); //edit the word in the wordBank
-            storage.writeWordBankExcelFile(bank.getWordBankObject());
-            storage.updateFile(oldString, newWord.toString(),"wordup");
+            StorageTransaction transaction = storage.beginTransaction();
+            transaction.writeChanges(bank);
+            if (!oldString.equals(newWord.toString())) {
+                transaction.updateFile(oldString, newWord.toString(),"wordup");
+            }
+            transaction.commit();
             return ui.showEdited(newWord);
         } catch (NoWordFoundException e) {
             return e.showError();
@@ -6,6 +6,7 @@ import ui.Ui;
 
 /**
  * Represents the command from user to exit application.
+ * Waits for all changes to be saved, and the excel file to be exported, before exiting.
  * Inherits from Command class.
  */
 
@@ -13,6 +14,7 @@ public class ExitCommand extends Command {
 
     @Override
     public String execute(Ui ui, Bank bank, Storage storage) {
+        storage.flushAndExport(bank);
         System.exit(0);
         return null;
     }
@@ -0,0 +1,59 @@
+package command;
+
+import dictionary.Bank;
+import dictionary.Word;
+import exception.UnableToImportFileException;
+import parser.VocabularyFileParser;
+import storage.Storage;
+import storage.StorageTransaction;
+import ui.Ui;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.logging.Logger;
+
+/**
+ * Represents a command from user to add all words of a vocabulary file.
+ * The lines of the file are parsed in parallel, and the new words are added to the bank together
+ * and saved with one transaction.
+ * Inherits from Command class.
+ */
+public class ImportCommand extends Command {
+    private static final Logger LOGGER = Logger.getLogger(ImportCommand.class.getName());
+    private String filePath;
+
+    public ImportCommand(String filePath) {
+        this.filePath = filePath;
+    }
+
+    @Override
+    public String execute(Ui ui, Bank bank, Storage storage) {
+        try {
+            File file = new File(filePath);
+            if (!file.isFile()) {
+                throw new UnableToImportFileException("There is no file at " + filePath);
+            }
+            long startTime = System.nanoTime();
+            VocabularyFileParser.Result result;
+            try {
+                result = new VocabularyFileParser(file).parse(parsedLines ->
+                        LOGGER.info("Parsed " + parsedLines + " lines of " + file.getName()));
+            } catch (IOException e) {
+                throw new UnableToImportFileException(e.getMessage());
+            }
+            ArrayList<Word> addedWords = bank.addWords(result.getWords());
+            StorageTransaction transaction = storage.beginTransaction();
+            for (Word word : addedWords) {
+                transaction.writeFile(word.toString(), true, "wordup");
+            }
+            transaction.writeChanges(bank);
+            transaction.commit();
+            long milliseconds = (System.nanoTime() - startTime) / 1000000;
+            return ui.showImported(file.getName(), addedWords.size(),
+                    result.getWords().size() - addedWords.size(), result.getRejectedLines(), milliseconds);
+        } catch (UnableToImportFileException e) {
+            return e.showError();
+        }
+    }
+}
@@ -22,7 +22,7 @@ public class RecentlyAddedCommand extends Command {
 
     @Override
     public String execute(Ui ui, Bank bank, Storage storage) {
-        wordHistory = storage.loadHistoryFile();
+        wordHistory = storage.loadHistoryTail(numberOfWordsToDisplay);
         return ui.showRecentlyAdded(wordHistory, numberOfWordsToDisplay);
     }
 }
\ No newline at end of file
@@ -1,24 +1,53 @@
 package command;
 
 import dictionary.Bank;
+import dictionary.PrefixTrie;
 import exception.NoWordFoundException;
 import storage.Storage;
 import ui.Ui;
 
 import java.util.ArrayList;
 
+/**
+ * Represents a command from user to list the words with a given beginning, one page at a time.
+ */
 public class SearchBeginCommand extends Command {
+
+    /**
+     * Number of words shown in a page when no limit is given.
+     */
+    public static final int DEFAULT_LIMIT = 20;
+
     String begin;
+    PrefixTrie.Order order;
+    int limit;
+    int page;
 
     public SearchBeginCommand(String begin) {
+        this(begin, PrefixTrie.Order.ALPHABETICAL, DEFAULT_LIMIT, 1);
+    }
+
+    /**
+     * Creates a command listing one page of the words with a beginning.
+     * @param begin the beginning of the words
+     * @param order alphabetical, or by search count with the most searched first
+     * @param limit number of words in a page
+     * @param page number of the page to be shown, starting from 1
+     */
+    public SearchBeginCommand(String begin, PrefixTrie.Order order, int limit, int page) {
         this.begin = begin;
+        this.order = order;
+        this.limit = limit;
+        this.page = page;
     }
 
     @Override
     public String execute(Ui ui, Bank bank, Storage storage) {
         try {
-            ArrayList<String> wordWithBegins = bank.searchWordWithBegin(this.begin);
-            return ui.showSearchBegin(this.begin, wordWithBegins);
+            int offset = (int) Math.min((long) (page - 1) * limit, Integer.MAX_VALUE);
+            ArrayList<String> wordWithBegins = bank.searchWordWithBegin(this.begin, order, offset, limit);
+            return ui.showSearchBegin(this.begin, wordWithBegins, bank.countWordsWithBegin(this.begin), offset,
+                    page);
         } catch (NoWordFoundException e) {
             return e.showError();
         }
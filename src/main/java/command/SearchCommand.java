@@ -1,6 +1,7 @@
 package command;
 
 import dictionary.Bank;
+import dictionary.Suggestions;
 import exception.NoWordFoundException;
 import exception.WordBankEmptyException;
 import exception.WordCountEmptyException;
@@ -27,6 +28,7 @@ public class SearchCommand extends Command {
             String example = bank.searchWordBankForExample(this.searchTerm);
             String meaning = bank.searchWordBankForMeaning(this.searchTerm);
             bank.increaseSearchCount(searchTerm);
+            storage.writeChanges(bank);
             return ui.showSearch(this.searchTerm, meaning, example);
         } catch (NoWordFoundException e) {
             StringBuilder stringBuilder = new StringBuilder();
@@ -41,13 +43,18 @@ public class SearchCommand extends Command {
             }
 
             // Spell checking. Look up similar words from local dictionary.
-            ArrayList<String> arrayList = bank.getClosedWords(this.searchTerm);
+            Suggestions suggestions = bank.getClosedWords(this.searchTerm);
+            ArrayList<String> arrayList = suggestions.getWords();
             if (arrayList.size() > 0) {
                 stringBuilder.append("\nAre you looking for these words instead?\n");
             }
             for (int i = 0; i < arrayList.size(); i++) {
                 stringBuilder.append(arrayList.get(i) + "\n");
             }
+            if (suggestions.isTimedOut()) {
+                stringBuilder.append("(The search for similar words took too long and was stopped early, "
+                        + "so some of them may be missing.)\n");
+            }
             return e.showError() + stringBuilder;
         } catch (WordBankEmptyException | WordCountEmptyException e) {
             return e.showError();
@@ -0,0 +1,38 @@
+package command;
+
+import dictionary.Bank;
+import dictionary.MeaningQuery;
+import storage.Storage;
+import ui.Ui;
+
+import java.util.ArrayList;
+
+/**
+ * Represents a command from user to find the words whose meaning or example contain some words or phrases.
+ */
+public class SearchMeaningCommand extends Command {
+
+    /**
+     * Largest number of words shown.
+     */
+    public static final int DEFAULT_LIMIT = 10;
+
+    String queryText;
+    MeaningQuery query;
+
+    /**
+     * Creates a command searching the meanings and examples of all words.
+     * @param queryText the query as typed by user
+     * @param query the query parsed
+     */
+    public SearchMeaningCommand(String queryText, MeaningQuery query) {
+        this.queryText = queryText;
+        this.query = query;
+    }
+
+    @Override
+    public String execute(Ui ui, Bank bank, Storage storage) {
+        ArrayList<String> words = bank.searchMeaning(query);
+        return ui.showSearchMeaning(queryText, words, DEFAULT_LIMIT);
+    }
+}
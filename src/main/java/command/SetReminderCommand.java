@@ -86,7 +86,7 @@ public class SetReminderCommand extends Command {
                 String reminderInfo = dateString + " | " + wordsForReminder;
                 storage.writeFile(reminderInfo,
                         true, "reminder");
-                new Reminder(date, reminderWordList, reminderInfo);
+                storage.scheduleReminder(new Reminder(date, reminderWordList, reminderInfo));
                 return ui.showReminderSummary(reminderWordList, date);
             default:
                 throw new ReminderSetupException();
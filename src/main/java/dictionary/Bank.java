@@ -6,9 +6,13 @@ import exception.NoWordFoundException;
 import exception.WordAlreadyExistsException;
 import exception.WordBankEmptyException;
 import exception.WordCountEmptyException;
+import exception.WordUpException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.TreeMap;
 
 public class Bank {
@@ -16,6 +20,7 @@ public class Bank {
     TagBank tagBank;
     SynonymBank synonymBank;
     WordCount wordCount;
+    BankChanges changes;
 
     /**
      * Initiates an empty bank.
@@ -25,6 +30,7 @@ public class Bank {
         tagBank = new TagBank();
         synonymBank = new SynonymBank();
         wordCount = new WordCount(wordBank);
+        changes = new BankChanges();
     }
 
     public WordBank getWordBankObject() {
@@ -55,6 +61,10 @@ public class Bank {
         return tagBank.getSize();
     }
 
+    public BankChanges getChanges() {
+        return changes;
+    }
+
     public SynonymBank getSynonymBank() {
         return synonymBank;
     }
@@ -72,6 +82,82 @@ public class Bank {
         wordBank.addWord(word);
         tagBank.addWordToAllTags(word);
         wordCount.addWord(word);
+        recordAddedWord(word);
+    }
+
+    /**
+     * Adds many words into bank at once, such as the words of an imported file, and records them as changes.
+     * Words that already exist in bank, or appear earlier in the list, are skipped.
+     * The new words are sorted once and put into wordBank together, before tagBank and wordCount are updated.
+     * @param words words to be added
+     * @return the words that were added, in the order of the list
+     */
+    public ArrayList<Word> addWords(List<Word> words) {
+        ArrayList<Word> addedWords = new ArrayList<>();
+        TreeMap<String, Word> newWords = new TreeMap<>();
+        for (Word word : words) {
+            if (!wordBank.contains(word.getWordString()) && newWords.putIfAbsent(word.getWordString(), word) == null) {
+                addedWords.add(word);
+            }
+        }
+        wordBank.addWords(newWords);
+        for (Word word : addedWords) {
+            tagBank.addWordToAllTags(word);
+            wordCount.addWord(word);
+            recordAddedWord(word);
+        }
+        return addedWords;
+    }
+
+    /**
+     * Adds a word read from storage into bank, without recording it as a change.
+     * @param word Word object represents the loaded word
+     * @throws WordAlreadyExistsException if the word already exists in bank
+     */
+    public void loadWord(Word word) throws WordAlreadyExistsException {
+        wordBank.addWord(word);
+        tagBank.addWordToAllTags(word);
+        wordCount.addWord(word);
+    }
+
+    /**
+     * Joins two words read from storage as synonyms, without recording it as a change.
+     * @param word word to be joined
+     * @param synonym word with the same meaning
+     */
+    public void loadSynonym(String word, String synonym) {
+        synonymBank.addWordToOneSynonym(word, synonym);
+    }
+
+    /**
+     * Sets the search count of a word read from storage, without recording it as a change.
+     * Counts of words that are not in the bank are skipped.
+     * @param word word that was searched
+     * @param numberOfSearches number of times the word was searched
+     */
+    public void loadSearchCount(String word, int numberOfSearches) {
+        if (!wordBank.contains(word)) {
+            return;
+        }
+        Word searchedWord = wordBank.getWordBank().get(word);
+        wordCount.deleteWord(searchedWord);
+        searchedWord.setNumberOfSearches(numberOfSearches);
+        wordCount.addWord(searchedWord);
+    }
+
+    /**
+     * Records a newly added word with its example and tags as changes.
+     * @param word word that was added
+     */
+    private void recordAddedWord(Word word) {
+        changes.markWordAndTagsChanged(word);
+        changes.record(BankOperation.Type.ADD, word.getWordString(), word.getMeaning());
+        if (word.getExample() != null) {
+            changes.record(BankOperation.Type.EXAMPLE, word.getWordString(), word.getExample());
+        }
+        for (String tag : word.getTags()) {
+            changes.record(BankOperation.Type.TAG, word.getWordString(), tag);
+        }
     }
 
     /**
@@ -88,9 +174,7 @@ public class Bank {
      * @throws WordAlreadyExistsException if the word already exists in the bank
      */
     public void addWordToBank(Word word) throws WordAlreadyExistsException {
-        wordBank.addWord(word);
-        tagBank.addWordToAllTags(word);
-        wordCount.addWord(word);
+        addWord(word);
     }
 
     /**
@@ -102,10 +186,13 @@ public class Bank {
         wordBank.deleteWord(word);
         tagBank.deleteWordAllTags(word);
         wordCount.deleteWord(word);
+        changes.markWordAndTagsChanged(word);
+        changes.record(BankOperation.Type.DELETE, word.getWordString(), null);
     }
 
     /**
      * Adds a list of tags to a word in WordBank and adds the word to all tags.
+     * Only the tags the word did not have yet are recorded as changes.
      * @param wordDescription word to be added tag
      * @param tags list of tags to add
      * @return all tags of the word after adding to show to user
@@ -113,8 +200,22 @@ public class Bank {
      */
     public HashSet<String> addWordToSomeTags(String wordDescription, ArrayList<String> tags)
             throws NoWordFoundException {
+        Word word = wordBank.getWord(wordDescription);
+        ArrayList<String> newTags = new ArrayList<>();
+        for (String tag : tags) {
+            if (!word.hasTag(tag) && !newTags.contains(tag)) {
+                newTags.add(tag);
+            }
+        }
         HashSet<String> tagsOfWord = wordBank.addWordToSomeTags(wordDescription, tags);
         tagBank.addWordToSomeTags(wordDescription, tags);
+        if (!newTags.isEmpty()) {
+            changes.markWordChanged(wordDescription);
+            changes.markTagsChanged();
+        }
+        for (String tag : newTags) {
+            changes.record(BankOperation.Type.TAG, wordDescription, tag);
+        }
         return tagsOfWord;
     }
 
@@ -122,10 +223,18 @@ public class Bank {
                            ArrayList<String> deletedTags, ArrayList<String> nullTags) {
         wordBank.deleteTags(deletedWord, tags, deletedTags, nullTags);
         tagBank.deleteWordSomeTags(deletedTags, deletedWord);
+        if (!deletedTags.isEmpty()) {
+            changes.markWordChanged(deletedWord);
+            changes.markTagsChanged();
+            for (String tag : deletedTags) {
+                changes.record(BankOperation.Type.UNTAG, deletedWord, tag);
+            }
+        }
     }
 
     /**
      * Adds a list of synonyms to a word in WordBank and adds the word to each of the synonyms.
+     * Only the synonyms the word did not have yet are recorded as changes.
      * @param wordDescription word to be added tag
      * @param synonyms list of tags to add
      * @return all synonyms of the word after adding to show to user
@@ -136,18 +245,56 @@ public class Bank {
         if (!wordBank.contains(wordDescription)) {
             throw new NoWordFoundException(wordDescription);
         }
+        ArrayList<String> newSynonyms = new ArrayList<>();
+        for (String synonym : synonyms) {
+            if (!synonymBank.areSynonyms(wordDescription, synonym) && !newSynonyms.contains(synonym)) {
+                newSynonyms.add(synonym);
+            }
+        }
         synonymBank.joinSynonymWords(wordDescription, synonyms);
+        if (!newSynonyms.isEmpty()) {
+            markSynonymSetChanged(wordDescription);
+        }
+        for (String synonym : newSynonyms) {
+            changes.record(BankOperation.Type.SYNONYM, wordDescription, synonym);
+        }
         return synonymBank.getAllSynonymsOfWord(wordDescription);
     }
 
+    /**
+     * Edits the meaning of a word, recording it as a change unless the meaning stays the same.
+     * @param editedWord word to be edited
+     * @param newMeaning new meaning of the word
+     * @return the edited word
+     * @throws NoWordFoundException if the word doesn't exist in the WordBank
+     */
     public Word editWordMeaning(String editedWord, String newMeaning) throws NoWordFoundException {
-        return wordBank.editWordMeaningAndGetWord(editedWord, newMeaning);
+        if (Objects.equals(wordBank.getWord(editedWord).getMeaning(), newMeaning)) {
+            return wordBank.getWord(editedWord);
+        }
+        Word word = wordBank.editWordMeaningAndGetWord(editedWord, newMeaning);
+        changes.markWordChanged(editedWord);
+        changes.record(BankOperation.Type.EDIT, editedWord, newMeaning);
+        return word;
     }
 
     public ArrayList<String> searchWordWithBegin(String begin) throws NoWordFoundException {
         return wordBank.searchWordWithBegin(begin);
     }
 
+    public ArrayList<String> searchWordWithBegin(String begin, PrefixTrie.Order order, int offset, int limit)
+            throws NoWordFoundException {
+        return wordBank.searchWordWithBegin(begin, order, offset, limit);
+    }
+
+    public int countWordsWithBegin(String begin) {
+        return wordBank.countWordsWithBegin(begin);
+    }
+
+    public ArrayList<String> searchMeaning(MeaningQuery query) {
+        return wordBank.searchMeaning(query);
+    }
+
     public String searchWordBankForMeaning(String searchTerm) throws WordBankEmptyException, NoWordFoundException {
         return wordBank.searchWordMeaning(searchTerm);
     }
@@ -158,33 +305,126 @@ public class Bank {
 
     public void increaseSearchCount(String searchTerm) throws WordCountEmptyException, NoWordFoundException {
         wordCount.increaseSearchCount(searchTerm, wordBank);
+        changes.record(BankOperation.Type.SEARCH, searchTerm, null);
     }
 
-    public ArrayList<String> getClosedWords(String searchTerm) {
+    public Suggestions getClosedWords(String searchTerm) {
         return wordBank.getClosedWords(searchTerm);
     }
 
+    /**
+     * Adds a tag to a word, recording it as a change unless the word already has the tag.
+     * @param word word to be tagged
+     * @param tag tag to be added
+     */
     public void addTagToWord(String word, String tag) {
+        boolean hasTag = wordBank.contains(word) && wordBank.getWordBank().get(word).hasTag(tag);
         wordBank.addTagToWord(word, tag);
         tagBank.addWordToOneTag(word, tag);
+        if (hasTag) {
+            return;
+        }
+        changes.markWordChanged(word);
+        changes.markTagsChanged();
+        changes.record(BankOperation.Type.TAG, word, tag);
     }
 
+    /**
+     * Sets the example of a word, recording it as a change unless the example stays the same.
+     * @param word word to be given the example
+     * @param example example sentence
+     * @throws NoWordFoundException if the word doesn't exist in the WordBank
+     */
     public void addExampleToWord(String word, String example) throws NoWordFoundException {
+        if (Objects.equals(wordBank.getWord(word).getExample(), example)) {
+            return;
+        }
         wordBank.addExampleToWord(word, example);
+        changes.markWordChanged(word);
+        changes.record(BankOperation.Type.EXAMPLE, word, example);
     }
 
     public boolean tagBankEmpty() {
         return tagBank.isEmpty();
     }
 
+    /**
+     * Joins two words as synonyms, recording it as a change unless they already are.
+     * @param word a word
+     * @param synonym word with the same meaning
+     */
     public void addSynonymToWord(String word, String synonym) {
+        if (synonymBank.areSynonyms(word, synonym)) {
+            return;
+        }
         synonymBank.addWordToOneSynonym(word, synonym);
+        markSynonymSetChanged(word);
+        changes.record(BankOperation.Type.SYNONYM, word, synonym);
+    }
+
+    /**
+     * Marks a word and every word now in the same set of synonyms as changed, since joining two sets
+     * changes the root word of every word in one of them.
+     * @param word word that was joined to a set of synonyms
+     */
+    private void markSynonymSetChanged(String word) {
+        ArrayList<String> synonymSet = synonymBank.getAllSynonymsOfWord(word);
+        synonymSet.add(word);
+        changes.markSynonymsChanged(synonymSet);
     }
 
     public boolean synonymBankEmpty() {
         return synonymBank.isEmpty();
     }
 
+    /**
+     * Applies a saved operation again, used to rebuild the bank from the journal.
+     * Adding a word that already exists changes its meaning instead,
+     * and tag operations on words that no longer exist are skipped.
+     * @param operation operation to be applied
+     * @throws WordUpException if the word of the operation doesn't exist
+     */
+    public void applyOperation(BankOperation operation) throws WordUpException {
+        String word = operation.getWord();
+        switch (operation.getType()) {
+        case ADD:
+            if (wordBank.contains(word)) {
+                editWordMeaning(word, operation.getValue());
+            } else {
+                addWord(new Word(word, operation.getValue()));
+            }
+            break;
+        case EDIT:
+            editWordMeaning(word, operation.getValue());
+            break;
+        case DELETE:
+            deleteWordFromBank(getWordFromWordBank(word));
+            break;
+        case EXAMPLE:
+            addExampleToWord(word, operation.getValue());
+            break;
+        case TAG:
+            if (wordBank.contains(word)) {
+                addTagToWord(word, operation.getValue());
+            }
+            break;
+        case UNTAG:
+            if (wordBank.contains(word)) {
+                deleteTags(word, new ArrayList<>(Collections.singletonList(operation.getValue())),
+                        new ArrayList<>(), new ArrayList<>());
+            }
+            break;
+        case SYNONYM:
+            addSynonymToWord(word, operation.getValue());
+            break;
+        case SEARCH:
+            increaseSearchCount(word);
+            break;
+        default:
+            break;
+        }
+    }
+
     /**
      * Gets all words of a specific tag.
      * @param searchTag tag to be searched
@@ -0,0 +1,138 @@
+package dictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Records the operations made on a bank since they were last saved,
+ * and which words and synonyms were changed since the bank was last exported.
+ * A changed word that no longer exists in the bank has been deleted.
+ * Tags are not recorded by name, since a word is marked as changed whenever one of its tags is added or removed.
+ * Each section of the bank also has a version that grows with every change to its rows, and is never reset,
+ * so that storage can tell if a section changed since it was last saved by comparing versions.
+ */
+public class BankChanges {
+    /**
+     * Sections of the bank that are saved as separate sheets.
+     */
+    public enum Section {
+        WORDS, TAGS, SYNONYMS
+    }
+
+    private ArrayList<BankOperation> operations;
+    private TreeSet<String> changedWords;
+    private TreeSet<String> changedSynonyms;
+    private long[] versions;
+
+    public BankChanges() {
+        versions = new long[Section.values().length];
+        operations = new ArrayList<>();
+        changedWords = new TreeSet<>();
+        changedSynonyms = new TreeSet<>();
+    }
+
+    void record(BankOperation.Type type, String word, String value) {
+        operations.add(new BankOperation(type, word, value));
+    }
+
+    public boolean hasOperations() {
+        return !operations.isEmpty();
+    }
+
+    /**
+     * Takes all operations recorded so far, in the order they were made.
+     * @return list of operations that are not saved yet
+     */
+    public ArrayList<BankOperation> drainOperations() {
+        ArrayList<BankOperation> drained = operations;
+        operations = new ArrayList<>();
+        return drained;
+    }
+
+    public TreeSet<String> getChangedWords() {
+        return changedWords;
+    }
+
+    public TreeSet<String> getChangedSynonyms() {
+        return changedSynonyms;
+    }
+
+    void markWordChanged(String word) {
+        changedWords.add(word);
+        versions[Section.WORDS.ordinal()]++;
+    }
+
+    /**
+     * Moves the version of the tag section, after tags were added to or removed from a word marked as changed.
+     */
+    void markTagsChanged() {
+        versions[Section.TAGS.ordinal()]++;
+    }
+
+    /**
+     * Marks a word as changed, and the tag section too if the word has tags.
+     * @param word word whose row and tag rows need to be saved
+     */
+    void markWordAndTagsChanged(Word word) {
+        markWordChanged(word.getWordString());
+        if (!word.getTags().isEmpty()) {
+            markTagsChanged();
+        }
+    }
+
+    /**
+     * Marks every word of a set of synonyms as changed, such as all words of a set another word was joined to.
+     * @param words words whose synonym rows need to be saved
+     */
+    void markSynonymsChanged(Collection<String> words) {
+        changedSynonyms.addAll(words);
+        versions[Section.SYNONYMS.ordinal()]++;
+    }
+
+    public long getVersion(Section section) {
+        return versions[section.ordinal()];
+    }
+
+    /**
+     * Gives the versions of all sections, to be compared later with isChangedSince.
+     * @return the version of each section, in the order of Section
+     */
+    public long[] getVersions() {
+        return versions.clone();
+    }
+
+    /**
+     * Checks if any section changed since the bank had the given versions.
+     * @param savedVersions versions of the sections when the bank was last saved
+     * @return true if the version of any section differs
+     */
+    public boolean isChangedSince(long[] savedVersions) {
+        return !Arrays.equals(versions, savedVersions);
+    }
+
+    /**
+     * Checks if any word, tag or synonym row was changed since the bank was last exported.
+     * @return true if no row was changed
+     */
+    public boolean isEmpty() {
+        return changedWords.isEmpty() && changedSynonyms.isEmpty();
+    }
+
+    /**
+     * Forgets which rows were changed, after the bank is exported.
+     */
+    public void clearChangedRows() {
+        changedWords.clear();
+        changedSynonyms.clear();
+    }
+
+    /**
+     * Forgets all changes, after the bank is loaded.
+     */
+    public void clear() {
+        operations.clear();
+        clearChangedRows();
+    }
+}
@@ -0,0 +1,48 @@
+package dictionary;
+
+/**
+ * Represents one change made to a bank, which can be saved and applied again to rebuild the bank.
+ */
+public class BankOperation {
+
+    /**
+     * Kinds of changes. The value of an operation is the meaning for ADD and EDIT, the example for EXAMPLE,
+     * the tag for TAG and UNTAG, the synonym for SYNONYM, and unused for DELETE and SEARCH.
+     */
+    public enum Type {
+        ADD, EDIT, DELETE, EXAMPLE, TAG, UNTAG, SYNONYM, SEARCH
+    }
+
+    private Type type;
+    private String word;
+    private String value;
+
+    /**
+     * Creates an operation on a word.
+     * @param type kind of the change
+     * @param word word that is changed
+     * @param value new value of the change, can be null
+     */
+    public BankOperation(Type type, String word, String value) {
+        this.type = type;
+        this.word = word;
+        this.value = value;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + word + (value == null ? "" : " " + value);
+    }
+}
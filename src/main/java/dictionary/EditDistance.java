@@ -0,0 +1,97 @@
+package dictionary;
+
+/**
+ * Edit distances between words, computed only as far as a largest distance of interest.
+ * Only the cells of the table within that many diagonals of the main one are filled, since every other cell is
+ * already further away, and the computation stops once a whole row is beyond it. The rows are kept in a buffer of
+ * each thread and reused, so no comparison allocates.
+ */
+public class EditDistance {
+
+    private static final int INITIAL_ROW_LENGTH = 32;
+
+    /**
+     * Three rows of the table for each thread: two rows back, the previous row and the current row.
+     */
+    private static final ThreadLocal<int[][]> ROWS = ThreadLocal.withInitial(() -> new int[3][INITIAL_ROW_LENGTH]);
+
+    private EditDistance() {
+    }
+
+    /**
+     * Levenshtein distance between two strings, counting insertions, deletions and substitutions.
+     * @param first first string
+     * @param second second string
+     * @param maxDistance largest distance of interest
+     * @return the distance, or maxDistance + 1 if it is larger than maxDistance
+     */
+    public static int levenshtein(CharSequence first, CharSequence second, int maxDistance) {
+        return distance(first, second, maxDistance, false);
+    }
+
+    /**
+     * Optimal string alignment distance between two strings, which also counts swapping two adjacent characters
+     * as a single edit, as long as no characters are edited again afterwards.
+     * @param first first string
+     * @param second second string
+     * @param maxDistance largest distance of interest
+     * @return the distance, or maxDistance + 1 if it is larger than maxDistance
+     */
+    public static int optimalStringAlignment(CharSequence first, CharSequence second, int maxDistance) {
+        return distance(first, second, maxDistance, true);
+    }
+
+    private static int distance(CharSequence first, CharSequence second, int maxDistance, boolean hasTranspositions) {
+        int firstLength = first.length();
+        int secondLength = second.length();
+        maxDistance = Math.min(maxDistance, Math.max(firstLength, secondLength));
+        int beyond = maxDistance + 1;
+        if (Math.abs(firstLength - secondLength) > maxDistance) {
+            return beyond;
+        }
+        int[][] rows = ROWS.get();
+        if (rows[0].length <= secondLength) {
+            rows = new int[3][Math.max(secondLength + 1, rows[0].length * 2)];
+            ROWS.set(rows);
+        }
+        int[] twoRowsBack = rows[0];
+        int[] previousRow = rows[1];
+        int[] currentRow = rows[2];
+        int firstBandEnd = Math.min(secondLength, maxDistance);
+        for (int j = 0; j <= firstBandEnd; j++) {
+            previousRow[j] = j;
+        }
+        if (firstBandEnd < secondLength) {
+            previousRow[firstBandEnd + 1] = beyond;
+        }
+        for (int i = 1; i <= firstLength; i++) {
+            int bandStart = Math.max(1, i - maxDistance);
+            int bandEnd = Math.min(secondLength, i + maxDistance);
+            currentRow[bandStart - 1] = bandStart == 1 ? i : beyond;
+            int rowMinimum = currentRow[bandStart - 1];
+            char firstChar = first.charAt(i - 1);
+            for (int j = bandStart; j <= bandEnd; j++) {
+                char secondChar = second.charAt(j - 1);
+                int substitution = previousRow[j - 1] + (firstChar == secondChar ? 0 : 1);
+                int distance = Math.min(substitution, Math.min(previousRow[j], currentRow[j - 1]) + 1);
+                if (hasTranspositions && i > 1 && j > 1 && firstChar == second.charAt(j - 2)
+                        && first.charAt(i - 2) == secondChar) {
+                    distance = Math.min(distance, twoRowsBack[j - 2] + 1);
+                }
+                currentRow[j] = Math.min(distance, beyond);
+                rowMinimum = Math.min(rowMinimum, currentRow[j]);
+            }
+            if (bandEnd < secondLength) {
+                currentRow[bandEnd + 1] = beyond;
+            }
+            if (rowMinimum > maxDistance) {
+                return beyond;
+            }
+            int[] row = twoRowsBack;
+            twoRowsBack = previousRow;
+            previousRow = currentRow;
+            currentRow = row;
+        }
+        return previousRow[secondLength];
+    }
+}
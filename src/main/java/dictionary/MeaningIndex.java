@@ -0,0 +1,406 @@
+package dictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Inverted index of the words in the meanings and examples of the words of a WordBank, answering full-text queries.
+ * Every word of the bank is a document with an id, and every token maps to a posting list of the ids of the
+ * documents containing it, with the positions of the token in each. A posting list is kept as one byte array of
+ * variable-length integers, the ids and positions written as differences from the previous ones.
+ * A document changed gets a new id at the end of the lists, so the lists are only ever appended to. The old id is
+ * only marked as removed, and the index is rebuilt once more ids are removed than are left.
+ * Matches are ranked with BM25, from the frequency of the words of the query in each document, their rarity
+ * among all documents and the length of each document.
+ */
+public class MeaningIndex {
+
+    /**
+     * How quickly more occurrences of a word stop raising the score.
+     */
+    static final double K1 = 1.2;
+
+    /**
+     * How much the score is lowered for documents longer than the average.
+     */
+    static final double B = 0.75;
+
+    /**
+     * Positions left between the meaning and the example, so that no phrase is found across them.
+     */
+    private static final int FIELD_GAP = 1;
+
+    private static final int[] NO_DOCUMENTS = new int[0];
+
+    private HashMap<String, PostingList> postingLists;
+    private HashMap<String, Integer> documentIds;
+    private ArrayList<Word> documents;
+    private int[] documentLengths;
+    private long totalLength;
+    private int removedCount;
+
+    public MeaningIndex() {
+        postingLists = new HashMap<>();
+        documentIds = new HashMap<>();
+        documents = new ArrayList<>();
+        documentLengths = new int[16];
+    }
+
+    /**
+     * Represents the documents containing a token, as variable-length integers appended to a byte array.
+     * Each document is written as the difference of its id from the previous id, the number of occurrences,
+     * and the difference of each position from the previous position.
+     */
+    private static class PostingList {
+        private byte[] data;
+        private int length;
+        private int lastDocumentId;
+        private int documentCount;
+
+        PostingList() {
+            data = new byte[8];
+            lastDocumentId = -1;
+        }
+
+        void append(int documentId, ArrayList<Integer> positions) {
+            writeNumber(documentId - lastDocumentId);
+            writeNumber(positions.size());
+            int lastPosition = 0;
+            for (int position : positions) {
+                writeNumber(position - lastPosition);
+                lastPosition = position;
+            }
+            lastDocumentId = documentId;
+            documentCount++;
+        }
+
+        private void writeNumber(int number) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            while ((number & ~0x7F) != 0) {
+                data[length++] = (byte) ((number & 0x7F) | 0x80);
+                number >>>= 7;
+            }
+            data[length++] = (byte) number;
+        }
+    }
+
+    /**
+     * Represents a posting list read back, keeping only the documents that were not removed.
+     */
+    private static class Postings {
+        private int[] documentIds;
+        private int[] frequencies;
+        private int[][] positions;
+
+        /**
+         * Finds where a document is in the postings.
+         * @return the index of the document, or a negative number if it does not contain the token
+         */
+        int indexOf(int documentId) {
+            return Arrays.binarySearch(documentIds, documentId);
+        }
+    }
+
+    public int getSize() {
+        return documents.size() - removedCount;
+    }
+
+    /**
+     * Splits a text into lower case tokens of letters and digits.
+     * @param text text to be split
+     * @return the tokens, in order
+     */
+    public static ArrayList<String> tokenize(String text) {
+        ArrayList<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isTokenCharacter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isTokenCharacter && start < 0) {
+                start = i;
+            } else if (!isTokenCharacter && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Adds a word with its meaning and example, or indexes them again if the word is already in the index.
+     * @param word word to be added
+     */
+    public void add(Word word) {
+        remove(word.getWordString());
+        int documentId = documents.size();
+        ArrayList<String> meaningTokens = tokenize(word.getMeaning());
+        ArrayList<String> exampleTokens = tokenize(word.getExample());
+        LinkedHashMap<String, ArrayList<Integer>> positionsOfTokens = new LinkedHashMap<>();
+        addPositions(meaningTokens, 0, positionsOfTokens);
+        addPositions(exampleTokens, meaningTokens.size() + FIELD_GAP, positionsOfTokens);
+        int documentLength = meaningTokens.size() + exampleTokens.size();
+        for (Map.Entry<String, ArrayList<Integer>> entry : positionsOfTokens.entrySet()) {
+            postingLists.computeIfAbsent(entry.getKey(), token -> new PostingList())
+                    .append(documentId, entry.getValue());
+        }
+        documents.add(word);
+        documentIds.put(word.getWordString(), documentId);
+        if (documentId == documentLengths.length) {
+            documentLengths = Arrays.copyOf(documentLengths, documentLengths.length * 2);
+        }
+        documentLengths[documentId] = documentLength;
+        totalLength += documentLength;
+    }
+
+    /**
+     * Adds the position of every token, counting from a first position.
+     */
+    private static void addPositions(ArrayList<String> tokens, int position,
+            LinkedHashMap<String, ArrayList<Integer>> positionsOfTokens) {
+        for (String token : tokens) {
+            positionsOfTokens.computeIfAbsent(token, key -> new ArrayList<>()).add(position++);
+        }
+    }
+
+    /**
+     * Removes a word, rebuilding the index once most of its documents are removed.
+     * @param word the word to be removed
+     * @return true if the word was in the index
+     */
+    public boolean remove(String word) {
+        Integer documentId = documentIds.remove(word);
+        if (documentId == null) {
+            return false;
+        }
+        documents.set(documentId, null);
+        totalLength -= documentLengths[documentId];
+        removedCount++;
+        if (removedCount > getSize()) {
+            rebuild();
+        }
+        return true;
+    }
+
+    private void rebuild() {
+        ArrayList<Word> words = new ArrayList<>();
+        for (Word word : documents) {
+            if (word != null) {
+                words.add(word);
+            }
+        }
+        postingLists.clear();
+        documentIds.clear();
+        documents.clear();
+        totalLength = 0;
+        removedCount = 0;
+        for (Word word : words) {
+            add(word);
+        }
+    }
+
+    /**
+     * Finds the words whose meaning or example match a query, the best match first.
+     * @param query the query
+     * @return the words matching the query, ranked by BM25 score and then alphabetically
+     */
+    public ArrayList<String> search(MeaningQuery query) {
+        HashMap<String, Postings> postingsOfWords = new HashMap<>();
+        for (String word : query.getWords()) {
+            postingsOfWords.put(word, read(word));
+        }
+        int[] matches = findMatches(query, postingsOfWords);
+        double[] scores = score(matches, postingsOfWords);
+        Integer[] order = new Integer[matches.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> -scores[i])
+                .thenComparing(i -> documents.get(matches[i]).getWordString()));
+        ArrayList<String> words = new ArrayList<>();
+        for (int i : order) {
+            words.add(documents.get(matches[i]).getWordString());
+        }
+        return words;
+    }
+
+    /**
+     * Finds the documents matching any alternative of a query, in the order of their ids.
+     */
+    private static int[] findMatches(MeaningQuery query, HashMap<String, Postings> postingsOfWords) {
+        int[] matches = NO_DOCUMENTS;
+        for (ArrayList<String[]> clause : query.getClauses()) {
+            int[] clauseMatches = null;
+            for (String[] term : clause) {
+                int[] termMatches = findTerm(term, postingsOfWords);
+                clauseMatches = clauseMatches == null ? termMatches : intersect(clauseMatches, termMatches);
+            }
+            matches = unite(matches, clauseMatches);
+        }
+        return matches;
+    }
+
+    /**
+     * Reads the posting list of a token, skipping the documents that were removed.
+     */
+    private Postings read(String token) {
+        Postings postings = new Postings();
+        PostingList postingList = postingLists.get(token);
+        int count = postingList == null ? 0 : postingList.documentCount;
+        postings.documentIds = new int[count];
+        postings.frequencies = new int[count];
+        postings.positions = new int[count][];
+        int liveCount = 0;
+        int offset = 0;
+        int documentId = -1;
+        int[] next = new int[1];
+        for (int i = 0; i < count; i++) {
+            offset = readNumber(postingList.data, offset, next);
+            documentId += next[0];
+            offset = readNumber(postingList.data, offset, next);
+            int frequency = next[0];
+            int[] positions = new int[frequency];
+            int position = 0;
+            for (int j = 0; j < frequency; j++) {
+                offset = readNumber(postingList.data, offset, next);
+                position += next[0];
+                positions[j] = position;
+            }
+            if (documents.get(documentId) != null) {
+                postings.documentIds[liveCount] = documentId;
+                postings.frequencies[liveCount] = frequency;
+                postings.positions[liveCount] = positions;
+                liveCount++;
+            }
+        }
+        postings.documentIds = Arrays.copyOf(postings.documentIds, liveCount);
+        postings.frequencies = Arrays.copyOf(postings.frequencies, liveCount);
+        postings.positions = Arrays.copyOf(postings.positions, liveCount);
+        return postings;
+    }
+
+    /**
+     * Reads a variable-length integer into number[0].
+     * @return the offset after the integer
+     */
+    private static int readNumber(byte[] data, int offset, int[] number) {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = data[offset++];
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        number[0] = value;
+        return offset;
+    }
+
+    /**
+     * Finds the documents containing a word, or all the words of a phrase one after another.
+     */
+    private static int[] findTerm(String[] term, HashMap<String, Postings> postingsOfWords) {
+        Postings first = postingsOfWords.get(term[0]);
+        int[] candidates = first.documentIds;
+        for (int i = 1; i < term.length; i++) {
+            candidates = intersect(candidates, postingsOfWords.get(term[i]).documentIds);
+        }
+        if (term.length == 1) {
+            return candidates;
+        }
+        int[] matches = new int[candidates.length];
+        int matchCount = 0;
+        for (int documentId : candidates) {
+            if (hasPhrase(documentId, term, postingsOfWords)) {
+                matches[matchCount++] = documentId;
+            }
+        }
+        return Arrays.copyOf(matches, matchCount);
+    }
+
+    private static boolean hasPhrase(int documentId, String[] phrase, HashMap<String, Postings> postingsOfWords) {
+        Postings first = postingsOfWords.get(phrase[0]);
+        for (int start : first.positions[first.indexOf(documentId)]) {
+            boolean isFound = true;
+            for (int i = 1; i < phrase.length && isFound; i++) {
+                Postings postings = postingsOfWords.get(phrase[i]);
+                isFound = Arrays.binarySearch(postings.positions[postings.indexOf(documentId)], start + i) >= 0;
+            }
+            if (isFound) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] intersect(int[] first, int[] second) {
+        int[] result = new int[Math.min(first.length, second.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int[] unite(int[] first, int[] second) {
+        int[] result = new int[first.length + second.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length || j < second.length) {
+            if (j == second.length || (i < first.length && first[i] < second[j])) {
+                result[count++] = first[i++];
+            } else if (i == first.length || second[j] < first[i]) {
+                result[count++] = second[j++];
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Scores each document matched with BM25, summed over the words of the query.
+     */
+    private double[] score(int[] matches, HashMap<String, Postings> postingsOfWords) {
+        double[] scores = new double[matches.length];
+        int documentCount = getSize();
+        double averageLength = documentCount == 0 ? 0 : (double) totalLength / documentCount;
+        for (Postings postings : postingsOfWords.values()) {
+            int frequency = postings.documentIds.length;
+            if (frequency == 0) {
+                continue;
+            }
+            double rarity = Math.log(1 + (documentCount - frequency + 0.5) / (frequency + 0.5));
+            for (int i = 0; i < matches.length; i++) {
+                int index = postings.indexOf(matches[i]);
+                if (index < 0) {
+                    continue;
+                }
+                double termFrequency = postings.frequencies[index];
+                double lengthRatio = averageLength == 0 ? 1 : documentLengths[matches[i]] / averageLength;
+                scores[i] += rarity * termFrequency * (K1 + 1) / (termFrequency + K1 * (1 - B + B * lengthRatio));
+            }
+        }
+        return scores;
+    }
+}
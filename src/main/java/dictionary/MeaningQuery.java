@@ -0,0 +1,98 @@
+package dictionary;
+
+import exception.WrongSearchMeaningFormatException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+
+/**
+ * Represents a full-text query over meanings and examples, as alternatives joined by "or".
+ * Each alternative needs all of its terms, and each term is a single word or a phrase of words that must follow
+ * each other, written in double quotes.
+ */
+public class MeaningQuery {
+
+    private ArrayList<ArrayList<String[]>> clauses;
+
+    private MeaningQuery(ArrayList<ArrayList<String[]>> clauses) {
+        this.clauses = clauses;
+    }
+
+    /**
+     * Gets the alternatives of the query, each a list of terms given as the words they are made of.
+     * @return the alternatives, in the order they were written
+     */
+    public ArrayList<ArrayList<String[]>> getClauses() {
+        return clauses;
+    }
+
+    /**
+     * Gets every word of the query once, which are the words used to rank the matches.
+     * @return the words of the query
+     */
+    public LinkedHashSet<String> getWords() {
+        LinkedHashSet<String> words = new LinkedHashSet<>();
+        for (ArrayList<String[]> clause : clauses) {
+            for (String[] term : clause) {
+                for (String word : term) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Parses a query such as: happy "in a good mood" or glad.
+     * Words are split the same way as meanings and examples, and "and" between terms may be left out.
+     * @param text the query
+     * @return the query parsed
+     * @throws WrongSearchMeaningFormatException if a quote is not closed, or an alternative has no words
+     */
+    public static MeaningQuery parse(String text) throws WrongSearchMeaningFormatException {
+        ArrayList<ArrayList<String[]>> clauses = new ArrayList<>();
+        ArrayList<String[]> clause = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char character = text.charAt(i);
+            if (Character.isWhitespace(character)) {
+                i++;
+            } else if (character == '"') {
+                int end = text.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new WrongSearchMeaningFormatException();
+                }
+                addTerm(clause, text.substring(i + 1, end));
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < text.length() && !Character.isWhitespace(text.charAt(end)) && text.charAt(end) != '"') {
+                    end++;
+                }
+                String word = text.substring(i, end);
+                if (word.equalsIgnoreCase("or")) {
+                    if (clause.isEmpty()) {
+                        throw new WrongSearchMeaningFormatException();
+                    }
+                    clauses.add(clause);
+                    clause = new ArrayList<>();
+                } else if (!word.equalsIgnoreCase("and")) {
+                    addTerm(clause, word);
+                }
+                i = end;
+            }
+        }
+        if (clause.isEmpty()) {
+            throw new WrongSearchMeaningFormatException();
+        }
+        clauses.add(clause);
+        return new MeaningQuery(clauses);
+    }
+
+    private static void addTerm(ArrayList<String[]> clause, String term) {
+        ArrayList<String> words = MeaningIndex.tokenize(term);
+        if (!words.isEmpty()) {
+            clause.add(words.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package dictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Compressed radix trie of the words of a WordBank, answering prefix queries.
+ * Each edge holds a run of characters, and each node counts the words below it, so that the number of words with
+ * a prefix is found by walking the prefix only, and a page of them in alphabetical order skips whole subtrees.
+ * Nodes keep the Word objects themselves, so ranking by search count always uses the current counts.
+ */
+public class PrefixTrie {
+
+    /**
+     * Orders in which words with a prefix can be listed.
+     */
+    public enum Order {
+        ALPHABETICAL, FREQUENCY
+    }
+
+    /**
+     * Orders words by search count, most searched first, and then alphabetically.
+     */
+    private static final Comparator<Word> BY_FREQUENCY = Comparator.comparingInt(Word::getNumberOfSearches)
+            .reversed().thenComparing(Word::getWordString);
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private Node root;
+
+    public PrefixTrie() {
+        root = new Node("");
+    }
+
+    /**
+     * Represents the end of an edge, with the characters of the edge and the children sorted by their first character.
+     */
+    private static class Node {
+        private String label;
+        private Node[] children;
+        private Word word;
+        private int count;
+
+        Node(String label) {
+            this.label = label;
+            this.children = NO_CHILDREN;
+        }
+
+        int findChild(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char middleFirst = children[middle].label.charAt(0);
+                if (middleFirst < first) {
+                    low = middle + 1;
+                } else if (middleFirst > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertChild(int insertion, Node child) {
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            newChildren[insertion] = child;
+            System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+            children = newChildren;
+        }
+
+        void removeChild(int index) {
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            children = newChildren.length == 0 ? NO_CHILDREN : newChildren;
+        }
+    }
+
+    public int getSize() {
+        return root.count;
+    }
+
+    /**
+     * Adds a word, or replaces the Word object of a word already in the trie.
+     * @param word word to be added
+     */
+    public void add(Word word) {
+        insert(root, word.getWordString(), 0, word);
+    }
+
+    private boolean insert(Node node, String key, int start, Word word) {
+        if (start == key.length()) {
+            boolean isAdded = node.word == null;
+            node.word = word;
+            if (isAdded) {
+                node.count++;
+            }
+            return isAdded;
+        }
+        int index = node.findChild(key.charAt(start));
+        if (index < 0) {
+            Node leaf = new Node(key.substring(start));
+            leaf.word = word;
+            leaf.count = 1;
+            node.insertChild(-index - 1, leaf);
+            node.count++;
+            return true;
+        }
+        Node child = node.children[index];
+        int common = 1;
+        while (common < child.label.length() && start + common < key.length()
+                && child.label.charAt(common) == key.charAt(start + common)) {
+            common++;
+        }
+        if (common < child.label.length()) {
+            Node middle = new Node(child.label.substring(0, common));
+            child.label = child.label.substring(common);
+            middle.children = new Node[] {child};
+            middle.count = child.count;
+            node.children[index] = middle;
+            child = middle;
+        }
+        boolean isAdded = insert(child, key, start + common, word);
+        if (isAdded) {
+            node.count++;
+        }
+        return isAdded;
+    }
+
+    /**
+     * Removes a word, merging the nodes left with a single child.
+     * @param word the word to be removed
+     * @return true if the word was in the trie
+     */
+    public boolean remove(String word) {
+        return remove(root, word, 0);
+    }
+
+    private boolean remove(Node node, String key, int start) {
+        if (start == key.length()) {
+            if (node.word == null) {
+                return false;
+            }
+            node.word = null;
+            node.count--;
+            return true;
+        }
+        int index = node.findChild(key.charAt(start));
+        if (index < 0) {
+            return false;
+        }
+        Node child = node.children[index];
+        if (!key.startsWith(child.label, start) || !remove(child, key, start + child.label.length())) {
+            return false;
+        }
+        node.count--;
+        if (child.count == 0) {
+            node.removeChild(index);
+        } else if (child.word == null && child.children.length == 1) {
+            Node grandchild = child.children[0];
+            grandchild.label = child.label + grandchild.label;
+            node.children[index] = grandchild;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the node holding all words with a prefix.
+     * @param prefix the beginning of the words
+     * @return the node, or null if no word has the prefix
+     */
+    private Node findNode(String prefix) {
+        Node node = root;
+        int start = 0;
+        while (start < prefix.length()) {
+            int index = node.findChild(prefix.charAt(start));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            int remaining = prefix.length() - start;
+            if (child.label.length() >= remaining) {
+                return child.label.startsWith(prefix.substring(start)) ? child : null;
+            }
+            if (!prefix.startsWith(child.label, start)) {
+                return null;
+            }
+            start += child.label.length();
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Counts the words with a prefix, in time depending only on the length of the prefix.
+     * @param prefix the beginning of the words
+     * @return number of words with the prefix
+     */
+    public int countWithPrefix(String prefix) {
+        Node node = findNode(prefix);
+        return node == null ? 0 : node.count;
+    }
+
+    /**
+     * Lists one page of the words with a prefix.
+     * @param prefix the beginning of the words
+     * @param order alphabetical, or by search count with the most searched first
+     * @param offset number of words skipped before the page
+     * @param limit largest number of words in the page
+     * @return the words of the page, in order
+     */
+    public ArrayList<String> findWithPrefix(String prefix, Order order, int offset, int limit) {
+        ArrayList<String> words = new ArrayList<>();
+        Node node = findNode(prefix);
+        if (node == null || offset >= node.count || limit <= 0) {
+            return words;
+        }
+        if (order == Order.ALPHABETICAL) {
+            collect(node, offset, limit, words);
+            return words;
+        }
+        int size = (int) Math.min((long) offset + limit, node.count);
+        PriorityQueue<Word> topWords = new PriorityQueue<>(size + 1, BY_FREQUENCY.reversed());
+        collectTop(node, size, topWords);
+        Word[] sortedWords = topWords.toArray(new Word[0]);
+        Arrays.sort(sortedWords, BY_FREQUENCY);
+        for (int i = offset; i < sortedWords.length; i++) {
+            words.add(sortedWords[i].getWordString());
+        }
+        return words;
+    }
+
+    /**
+     * Adds the words of a subtree in alphabetical order, skipping whole subtrees that lie before the page.
+     * @return the number of words still to be skipped
+     */
+    private int collect(Node node, int skip, int limit, ArrayList<String> words) {
+        if (skip >= node.count) {
+            return skip - node.count;
+        }
+        if (node.word != null) {
+            if (skip > 0) {
+                skip--;
+            } else {
+                words.add(node.word.getWordString());
+            }
+        }
+        for (int i = 0; i < node.children.length && words.size() < limit; i++) {
+            skip = collect(node.children[i], skip, limit, words);
+        }
+        return skip;
+    }
+
+    /**
+     * Keeps the most searched words of a subtree in a heap holding at most size words, the least searched on top.
+     */
+    private void collectTop(Node node, int size, PriorityQueue<Word> topWords) {
+        if (node.word != null) {
+            topWords.add(node.word);
+            if (topWords.size() > size) {
+                topWords.poll();
+            }
+        }
+        for (Node child : node.children) {
+            collectTop(child, size, topWords);
+        }
+    }
+}
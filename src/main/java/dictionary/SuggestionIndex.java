@@ -0,0 +1,448 @@
+package dictionary;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BK-trees of the words of a WordBank, one per word length, suggesting words close to one that was not found.
+ * The trees are built over the bag distance, the number of characters to change when the order of the characters
+ * is ignored. It never exceeds the edit distance, counting a swap of two adjacent characters as one edit, so only
+ * the trees of lengths within the edits allowed are searched, only within that many changes, and only the words
+ * found are compared character by character. Every child hangs under its parent by its distance to
+ * it, so by the triangle inequality a search only visits the children whose distance is within the allowed
+ * distance of the distance to the parent.
+ * Large trees are searched in parallel on the common fork-join pool, each task keeping the best words of its
+ * subtree in a bounded heap, and the heaps are merged once the tasks are done.
+ * Deleted words are only marked, and the trees are rebuilt once more words are marked than are left.
+ */
+public class SuggestionIndex {
+
+    /**
+     * Largest number of edits between a suggestion and the word searched.
+     */
+    static final int MAX_DISTANCE = 3;
+
+    /**
+     * Largest number of suggestions given.
+     */
+    static final int MAX_SUGGESTIONS = 10;
+
+    /**
+     * Time in milliseconds after which a search stops and gives the best suggestions found so far.
+     */
+    static final long TIME_BUDGET_MILLISECONDS = 50;
+
+    /**
+     * Largest number of nodes in a subtree searched by one task without forking tasks for its children.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    /**
+     * Number of nodes visited between two checks of the time budget.
+     */
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    /**
+     * Orders suggestions from the best: the closest first, then the most searched, then alphabetically.
+     */
+    private static final Comparator<Suggestion> BY_RANK = Comparator.comparingInt((Suggestion suggestion) ->
+            suggestion.distance).thenComparing(suggestion -> -suggestion.word.getNumberOfSearches())
+            .thenComparing(suggestion -> suggestion.word.getWordString());
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_DISTANCES = new int[0];
+
+    private ArrayList<Node> roots;
+    private int size;
+    private int deletedCount;
+
+    /**
+     * Represents a word in the tree, with its characters sorted and its children sorted by their distance to it.
+     * The count includes the node and the deleted words below it.
+     */
+    private static class Node {
+        private Word word;
+        private char[] sortedCharacters;
+        private boolean isDeleted;
+        private int count;
+        private int[] distances;
+        private Node[] children;
+
+        Node(Word word, char[] sortedCharacters) {
+            this.word = word;
+            this.sortedCharacters = sortedCharacters;
+            this.count = 1;
+            this.distances = NO_DISTANCES;
+            this.children = NO_CHILDREN;
+        }
+
+        Node getChild(int distance) {
+            for (int i = 0; i < distances.length; i++) {
+                if (distances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        void addChild(int distance, Node child) {
+            int insertion = 0;
+            while (insertion < distances.length && distances[insertion] < distance) {
+                insertion++;
+            }
+            int[] newDistances = new int[distances.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(distances, 0, newDistances, 0, insertion);
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            newDistances[insertion] = distance;
+            newChildren[insertion] = child;
+            System.arraycopy(distances, insertion, newDistances, insertion + 1, distances.length - insertion);
+            System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+            distances = newDistances;
+            children = newChildren;
+        }
+    }
+
+    public SuggestionIndex() {
+        roots = new ArrayList<>();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Adds a word, or replaces the Word object of a word already in the tree.
+     * @param word word to be added
+     */
+    public void add(Word word) {
+        char[] sortedCharacters = sortCharacters(word.getWordString());
+        while (roots.size() <= sortedCharacters.length) {
+            roots.add(null);
+        }
+        Node node = roots.get(sortedCharacters.length);
+        if (node == null) {
+            roots.set(sortedCharacters.length, new Node(word, sortedCharacters));
+            size++;
+            return;
+        }
+        Node existingNode = find(node, word.getWordString(), sortedCharacters);
+        if (existingNode != null) {
+            existingNode.word = word;
+            if (existingNode.isDeleted) {
+                existingNode.isDeleted = false;
+                deletedCount--;
+                size++;
+            }
+            return;
+        }
+        while (true) {
+            node.count++;
+            int distance = bagDistance(sortedCharacters, node.sortedCharacters);
+            Node child = node.getChild(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(word, sortedCharacters));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Removes a word, rebuilding the tree once most of its nodes are deleted words.
+     * @param word the word to be removed
+     * @return true if the word was in the tree
+     */
+    public boolean remove(String word) {
+        if (word.length() >= roots.size()) {
+            return false;
+        }
+        Node node = find(roots.get(word.length()), word, sortCharacters(word));
+        if (node == null || node.isDeleted) {
+            return false;
+        }
+        node.isDeleted = true;
+        deletedCount++;
+        size--;
+        if (deletedCount > size) {
+            rebuild();
+        }
+        return true;
+    }
+
+    /**
+     * Finds the node of a word in a tree, deleted or not.
+     * @return the node, or null if the word was never added since the tree was built
+     */
+    private static Node find(Node root, String word, char[] sortedCharacters) {
+        Node node = root;
+        while (node != null && !node.word.getWordString().equals(word)) {
+            node = node.getChild(bagDistance(sortedCharacters, node.sortedCharacters));
+        }
+        return node;
+    }
+
+    private void rebuild() {
+        ArrayList<Word> words = new ArrayList<>(size);
+        ArrayDeque<Node> nodes = new ArrayDeque<>();
+        for (Node root : roots) {
+            if (root != null) {
+                nodes.push(root);
+            }
+        }
+        while (!nodes.isEmpty()) {
+            Node node = nodes.pop();
+            if (!node.isDeleted) {
+                words.add(node.word);
+            }
+            for (Node child : node.children) {
+                nodes.push(child);
+            }
+        }
+        roots.clear();
+        size = 0;
+        deletedCount = 0;
+        for (Word word : words) {
+            add(word);
+        }
+    }
+
+    /**
+     * Suggests the words close to a word that was not found, within the default time budget.
+     * @param query the word searched
+     * @return the closest words, at most MAX_SUGGESTIONS of them
+     */
+    public Suggestions suggest(String query) {
+        return suggest(query, MAX_SUGGESTIONS, TIME_BUDGET_MILLISECONDS);
+    }
+
+    /**
+     * Suggests the words close to a word that was not found, the closest first, and then the most searched.
+     * A word is close if it differs by at most MAX_DISTANCE edits and at most half its length, where an edit is
+     * inserting, deleting or changing a character, or swapping two adjacent characters.
+     * Once the time budget is spent, the best words found until then are suggested, marked as timed out.
+     * @param query the word searched
+     * @param limit largest number of suggestions
+     * @param timeBudgetMilliseconds time in milliseconds after which the search stops
+     * @return the closest words, at most limit of them
+     */
+    public Suggestions suggest(String query, int limit, long timeBudgetMilliseconds) {
+        ArrayList<String> words = new ArrayList<>();
+        if (limit <= 0) {
+            return new Suggestions(words, false);
+        }
+        Search search = new Search(query, limit, System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(timeBudgetMilliseconds));
+        int maxDistance = Math.min(MAX_DISTANCE, query.length());
+        int shortestLength = Math.max(0, query.length() - maxDistance);
+        int longestLength = Math.min(roots.size() - 1, query.length() + maxDistance);
+        ArrayList<SearchTask> forkedTasks = new ArrayList<>();
+        PriorityQueue<Suggestion> bestSuggestions = search.createHeap();
+        for (int length = shortestLength; length <= longestLength; length++) {
+            int allowedDistance = Math.min(maxDistance, length / 2);
+            Node root = roots.get(length);
+            if (root == null || Math.abs(length - query.length()) > allowedDistance) {
+                continue;
+            }
+            SearchTask task = new SearchTask(search, root, allowedDistance);
+            if (root.count > SEQUENTIAL_THRESHOLD) {
+                task.fork();
+                forkedTasks.add(task);
+            } else {
+                search.merge(bestSuggestions, task.invoke());
+            }
+        }
+        for (SearchTask task : forkedTasks) {
+            search.merge(bestSuggestions, task.join());
+        }
+        Suggestion[] sortedSuggestions = bestSuggestions.toArray(new Suggestion[0]);
+        Arrays.sort(sortedSuggestions, BY_RANK);
+        for (Suggestion suggestion : sortedSuggestions) {
+            words.add(suggestion.word.getWordString());
+        }
+        return new Suggestions(words, search.isTimedOut);
+    }
+
+    /**
+     * Represents one search for the words close to a query, shared by the tasks searching its subtrees.
+     */
+    private static class Search {
+        private final String query;
+        private final char[] sortedCharacters;
+        private final int limit;
+        private final long deadline;
+        private volatile boolean isTimedOut;
+
+        Search(String query, int limit, long deadline) {
+            this.query = query;
+            this.sortedCharacters = sortCharacters(query);
+            this.limit = limit;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Creates a heap keeping the best suggestions, with the worst of them on top.
+         */
+        PriorityQueue<Suggestion> createHeap() {
+            return new PriorityQueue<>(limit + 1, BY_RANK.reversed());
+        }
+
+        void offer(PriorityQueue<Suggestion> suggestions, Suggestion suggestion) {
+            suggestions.add(suggestion);
+            if (suggestions.size() > limit) {
+                suggestions.poll();
+            }
+        }
+
+        void merge(PriorityQueue<Suggestion> suggestions, PriorityQueue<Suggestion> otherSuggestions) {
+            for (Suggestion suggestion : otherSuggestions) {
+                offer(suggestions, suggestion);
+            }
+        }
+
+        /**
+         * Finds the largest distance a word may still have to be among the best suggestions.
+         */
+        int getRadius(PriorityQueue<Suggestion> suggestions, int allowedDistance) {
+            if (suggestions.size() < limit) {
+                return allowedDistance;
+            }
+            return Math.min(allowedDistance, suggestions.peek().distance);
+        }
+
+        /**
+         * Compares the word of a node with the query, and keeps it if it is among the best suggestions.
+         * @return the bag distance between the word and the query
+         */
+        int check(Node node, int allowedDistance, PriorityQueue<Suggestion> suggestions) {
+            int bagDistance = bagDistance(sortedCharacters, node.sortedCharacters);
+            int radius = getRadius(suggestions, allowedDistance);
+            if (!node.isDeleted && bagDistance <= radius) {
+                String word = node.word.getWordString();
+                int distance = EditDistance.optimalStringAlignment(query, word, radius);
+                if (distance <= radius) {
+                    offer(suggestions, new Suggestion(node.word, distance));
+                }
+            }
+            return bagDistance;
+        }
+
+        /**
+         * Keeps the best words of a subtree within the allowed distance of the query, in one thread.
+         * The bag distance never exceeds the edit distance, so only the subtrees within the allowed bag distance
+         * are visited.
+         */
+        void findClosest(Node root, int allowedDistance, PriorityQueue<Suggestion> suggestions) {
+            ArrayDeque<Node> nodes = new ArrayDeque<>();
+            nodes.push(root);
+            int visitedCount = 0;
+            while (!nodes.isEmpty() && !hasTimedOut(visitedCount++)) {
+                Node node = nodes.pop();
+                int bagDistance = check(node, allowedDistance, suggestions);
+                int radius = getRadius(suggestions, allowedDistance);
+                for (int i = 0; i < node.children.length; i++) {
+                    int childDistance = node.distances[i];
+                    if (childDistance >= bagDistance - radius && childDistance <= bagDistance + radius) {
+                        nodes.push(node.children[i]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Checks whether the time budget is spent, reading the clock only once every few nodes visited.
+         */
+        boolean hasTimedOut(int visitedCount) {
+            if (!isTimedOut && visitedCount % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                isTimedOut = true;
+            }
+            return isTimedOut;
+        }
+    }
+
+    /**
+     * Searches a subtree, forking one task for each child within the radius while the subtree is large.
+     */
+    private static class SearchTask extends RecursiveTask<PriorityQueue<Suggestion>> {
+        private final Search search;
+        private final Node root;
+        private final int allowedDistance;
+
+        SearchTask(Search search, Node root, int allowedDistance) {
+            this.search = search;
+            this.root = root;
+            this.allowedDistance = allowedDistance;
+        }
+
+        @Override
+        protected PriorityQueue<Suggestion> compute() {
+            PriorityQueue<Suggestion> suggestions = search.createHeap();
+            if (search.hasTimedOut(0)) {
+                return suggestions;
+            }
+            if (root.count <= SEQUENTIAL_THRESHOLD) {
+                search.findClosest(root, allowedDistance, suggestions);
+                return suggestions;
+            }
+            int bagDistance = search.check(root, allowedDistance, suggestions);
+            ArrayList<SearchTask> tasks = new ArrayList<>();
+            for (int i = 0; i < root.children.length; i++) {
+                int childDistance = root.distances[i];
+                if (childDistance >= bagDistance - allowedDistance && childDistance <= bagDistance + allowedDistance) {
+                    tasks.add(new SearchTask(search, root.children[i], allowedDistance));
+                }
+            }
+            for (SearchTask task : invokeAll(tasks)) {
+                search.merge(suggestions, task.join());
+            }
+            return suggestions;
+        }
+    }
+
+    /**
+     * Represents a word suggested with its distance to the word searched.
+     */
+    private static class Suggestion {
+        private Word word;
+        private int distance;
+
+        Suggestion(Word word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+    }
+
+    private static char[] sortCharacters(String word) {
+        char[] characters = word.toCharArray();
+        Arrays.sort(characters);
+        return characters;
+    }
+
+    /**
+     * Bag distance between two words given by their sorted characters, the larger number of characters
+     * of either word left over once the characters they share are paired.
+     */
+    static int bagDistance(char[] first, char[] second) {
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] == second[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (first[i] < second[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Math.max(first.length, second.length) - shared;
+    }
+}
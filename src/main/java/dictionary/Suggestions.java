@@ -0,0 +1,36 @@
+package dictionary;
+
+import java.util.ArrayList;
+
+/**
+ * Represents the words suggested for a word that was not found, the closest first.
+ * A search that ran out of its time budget gives only the best words it found until then,
+ * so closer words may be missing.
+ */
+public class Suggestions {
+
+    private ArrayList<String> words;
+    private boolean isTimedOut;
+
+    public Suggestions(ArrayList<String> words, boolean isTimedOut) {
+        this.words = words;
+        this.isTimedOut = isTimedOut;
+    }
+
+    public ArrayList<String> getWords() {
+        return words;
+    }
+
+    /**
+     * Checks if the search stopped before every word that could be close was compared.
+     * @return true if the time budget of the search was spent
+     */
+    public boolean isTimedOut() {
+        return isTimedOut;
+    }
+
+    @Override
+    public String toString() {
+        return words.toString();
+    }
+}
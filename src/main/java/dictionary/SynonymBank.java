@@ -110,6 +110,29 @@ public class SynonymBank {
         return newParent;
     }
 
+    /**
+     * Gets the root word of every word in the synonym bank.
+     * Words with the same root have the same meaning.
+     * @return map from each word to its root word
+     */
+    public HashMap<String, String> getAllRoots() {
+        HashMap<String, String> roots = new HashMap<>();
+        for (String word : synonymBank.keySet()) {
+            roots.put(word, findSet(word));
+        }
+        return roots;
+    }
+
+    /**
+     * Checks if two words are already known to have the same meaning.
+     * @param word a word
+     * @param synonym another word
+     * @return true if both words are in the synonym bank with the same root word
+     */
+    public boolean areSynonyms(String word, String synonym) {
+        return synonymBank.containsKey(word) && synonymBank.containsKey(synonym) && isSameSet(word, synonym);
+    }
+
     public boolean isEmpty() {
         return synonymBank.isEmpty();
     }
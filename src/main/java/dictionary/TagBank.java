@@ -26,7 +26,7 @@ public class TagBank {
             if (tagBank.containsKey(tag)) {
                 tagBank.get(tag).add(wordDescription);
             } else {
-                tagBank.put(tag, new HashSet<>(Collections.singletonList(wordDescription)));
+                tagBank.put(TagTable.intern(tag), new HashSet<>(Collections.singletonList(wordDescription)));
             }
         }
     }
@@ -95,7 +95,7 @@ public class TagBank {
         if (tagBank.containsKey(tag)) {
             tagBank.get(tag).add(word);
         } else {
-            tagBank.put(tag, new HashSet<>(Collections.singletonList(word)));
+            tagBank.put(TagTable.intern(tag), new HashSet<>(Collections.singletonList(word)));
         }
     }
 
@@ -0,0 +1,56 @@
+package dictionary;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Represents the table giving every tag used by any word a small id, shared by all words of all banks.
+ * Words keep the ids of their tags instead of the tag strings, so that each tag is kept in memory once.
+ * Ids are never reused, since a tag removed from every word may be added again later.
+ */
+public class TagTable {
+    private static final HashMap<String, Integer> IDS = new HashMap<>();
+    private static final ArrayList<String> NAMES = new ArrayList<>();
+
+    /**
+     * Gets the id of a tag, giving it a new id if it has none yet.
+     * @param tag tag to be looked up
+     * @return id of the tag
+     */
+    public static synchronized int idOf(String tag) {
+        Integer id = IDS.get(tag);
+        if (id == null) {
+            id = NAMES.size();
+            IDS.put(tag, id);
+            NAMES.add(tag);
+        }
+        return id;
+    }
+
+    /**
+     * Gets the id of a tag without giving it one.
+     * @param tag tag to be looked up
+     * @return id of the tag, or -1 if no word ever had the tag
+     */
+    public static synchronized int findId(String tag) {
+        return IDS.getOrDefault(tag, -1);
+    }
+
+    /**
+     * Gets a tag by its id.
+     * @param id id of the tag
+     * @return the one string kept for the tag
+     */
+    public static synchronized String nameOf(int id) {
+        return NAMES.get(id);
+    }
+
+    /**
+     * Gets the one string kept for a tag, so that equal tags held elsewhere share it.
+     * @param tag tag to be looked up
+     * @return the string kept for the tag
+     */
+    public static String intern(String tag) {
+        return nameOf(idOf(tag));
+    }
+}
@@ -1,6 +1,7 @@
 package dictionary;
 
 
+import java.util.Arrays;
 import java.util.HashSet;
 
 /**
@@ -10,9 +11,21 @@ import java.util.HashSet;
 public class Word {
     private String word;
     private String meaning;
-    private HashSet<String> tags;
     private String example;
 
+    /**
+     * Sorted ids of the tags of the word in the TagTable, shared by all words without tags while it is empty.
+     */
+    private int[] tagIds;
+
+    private static final int[] NO_TAGS = new int[0];
+
+    /**
+     * Where the meaning and example are read from when they are loaded on demand, or null once they are in memory.
+     */
+    private WordText text;
+    private int textOffset;
+
     /**
      * Number of times that a word is searched.
      */
@@ -27,7 +40,7 @@ public class Word {
         this.word = word;
         this.meaning = meaning;
         this.example = null;
-        this.tags = new HashSet<>();
+        this.tagIds = NO_TAGS;
         this.numberOfSearches = 0;
     }
 
@@ -41,7 +54,22 @@ public class Word {
         this.word = word;
         this.meaning = meaning;
         this.example = null;
-        this.tags = tags;
+        this.tagIds = toTagIds(tags);
+        this.numberOfSearches = 0;
+    }
+
+    /**
+     * Initializes a word whose meaning and example are only read when they are asked for.
+     * @param word description of the word
+     * @param text where the meaning and example are read from
+     * @param textOffset position of the meaning and example in the text
+     * @param tags hash set containing tags that are added to word
+     */
+    public Word(String word, WordText text, int textOffset, HashSet<String> tags) {
+        this.word = word;
+        this.text = text;
+        this.textOffset = textOffset;
+        this.tagIds = toTagIds(tags);
         this.numberOfSearches = 0;
     }
 
@@ -54,74 +82,131 @@ public class Word {
     }
 
     public String getMeaning() {
-        return meaning;
+        return text == null ? meaning : text.getMeaning(textOffset);
     }
 
     public String getExample() {
-        return example;
+        return text == null ? example : text.getExample(textOffset);
+    }
+
+    /**
+     * Gets where the meaning and example are read from, so that a copy of the word can refer to them
+     * instead of reading them.
+     * @return the text of the word, or null once its meaning and example are in memory
+     */
+    public WordText getText() {
+        return text;
+    }
+
+    public int getTextOffset() {
+        return textOffset;
     }
 
+    private static int[] toTagIds(HashSet<String> tags) {
+        if (tags.isEmpty()) {
+            return NO_TAGS;
+        }
+        int[] ids = new int[tags.size()];
+        int i = 0;
+        for (String tag : tags) {
+            ids[i++] = TagTable.idOf(tag);
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Gets the tags of the word as a new set, so that changing the set does not change the word.
+     * @return hash set containing the tags of the word
+     */
     public HashSet<String> getTags() {
+        HashSet<String> tags = new HashSet<>();
+        for (int id : tagIds) {
+            tags.add(TagTable.nameOf(id));
+        }
         return tags;
     }
 
+    public boolean hasTag(String tag) {
+        int id = TagTable.findId(tag);
+        return id >= 0 && Arrays.binarySearch(tagIds, id) >= 0;
+    }
+
+    /**
+     * Adds a tag to the word, if the word does not have it yet.
+     * @param tag tag to be added
+     */
     public void addTag(String tag) {
-        this.tags.add(tag);
+        int id = TagTable.idOf(tag);
+        int index = Arrays.binarySearch(tagIds, id);
+        if (index >= 0) {
+            return;
+        }
+        int insertion = -index - 1;
+        int[] newTagIds = new int[tagIds.length + 1];
+        System.arraycopy(tagIds, 0, newTagIds, 0, insertion);
+        newTagIds[insertion] = id;
+        System.arraycopy(tagIds, insertion, newTagIds, insertion + 1, tagIds.length - insertion);
+        tagIds = newTagIds;
+    }
+
+    /**
+     * Removes a tag from the word.
+     * @param tag tag to be removed
+     * @return true if the word had the tag
+     */
+    public boolean removeTag(String tag) {
+        int id = TagTable.findId(tag);
+        int index = id < 0 ? -1 : Arrays.binarySearch(tagIds, id);
+        if (index < 0) {
+            return false;
+        }
+        if (tagIds.length == 1) {
+            tagIds = NO_TAGS;
+            return true;
+        }
+        int[] newTagIds = new int[tagIds.length - 1];
+        System.arraycopy(tagIds, 0, newTagIds, 0, index);
+        System.arraycopy(tagIds, index + 1, newTagIds, index, tagIds.length - index - 1);
+        tagIds = newTagIds;
+        return true;
     }
 
     public void addExample(String example) {
+        loadText();
         this.example = example;
     }
 
+    /**
+     * Sets the number of searches of a word loaded from storage.
+     * @param numberOfSearches number of times the word was searched
+     */
+    public void setNumberOfSearches(int numberOfSearches) {
+        this.numberOfSearches = numberOfSearches;
+    }
+
     public void incrementNumberOfSearches() {
         this.numberOfSearches += 1;
     }
 
     public void editMeaning(String newMeaning) {
+        loadText();
         this.meaning = newMeaning;
     }
 
     /**
-     * Levenshtein distance between 2 strings.
-     * Calculates the minimum number of changes from 1 string to get to another
-     * Possible changes are insert, delete or change characters
-     * @param another string represents word to be compared
-     * @return edit distance between 2 words divided by the length of shorter word
-     * @author Cheng Pai Kai
+     * Reads the meaning and example into memory before one of them is changed.
      */
-    private double differenceToWord(String another) {
-        int[][] dp = new int[word.length() + 1][another.length() + 1];
-
-        for (int i = 0; i <= word.length(); i++) {
-            for (int j = 0; j <= another.length(); j++) {
-                if (i == 0) {
-                    dp[i][j] = j;
-                } else if (j == 0) {
-                    dp[i][j] = i;
-                } else {
-                    dp[i][j] = dp[i - 1][j - 1] + ((word.charAt(i - 1) != another.charAt(j - 1)) ? 1 : 0);
-                    if (dp[i][j] > dp[i - 1][j] + 1) {
-                        dp[i][j] = dp[i - 1][j] + 1;
-                    } else if (dp[i][j] > dp[i][j - 1] + 1) {
-                        dp[i][j] = dp[i][j - 1] + 1;
-                    }
-                }
-            }
+    private void loadText() {
+        if (text != null) {
+            meaning = text.getMeaning(textOffset);
+            example = text.getExample(textOffset);
+            text = null;
         }
-        return dp[word.length()][another.length()];
-    }
-
-    /**
-     * Checks if 2 words are closed to each other.
-     * @param another string represents word to be compared
-     * @return true if 2 words are closed with each other
-     */
-    public boolean isClosed(String another) {
-        return differenceToWord(another) * 2 <= word.length();
     }
 
     @Override
     public String toString() {
-        return word + ": " + meaning;
+        return word + ": " + getMeaning();
     }
 }
\ No newline at end of file
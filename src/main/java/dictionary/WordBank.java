@@ -11,9 +11,18 @@ import java.util.TreeMap;
 
 public class WordBank {
     private TreeMap<String, Word> wordBank;
+    private PrefixTrie prefixIndex;
+    private SuggestionIndex suggestionIndex;
+
+    /**
+     * Full-text index of the meanings and examples, built on the first search in them so that loading stays lazy.
+     */
+    private MeaningIndex meaningIndex;
 
     public WordBank() {
         this.wordBank = new TreeMap<>();
+        this.prefixIndex = new PrefixTrie();
+        this.suggestionIndex = new SuggestionIndex();
     }
 
     public TreeMap<String, Word> getWordBank() {
@@ -52,6 +61,11 @@ public class WordBank {
     public void deleteWord(Word word) throws NoWordFoundException {
         if (wordBank.containsKey(word.getWordString())) {
             wordBank.remove(word.getWordString());
+            prefixIndex.remove(word.getWordString());
+            suggestionIndex.remove(word.getWordString());
+            if (meaningIndex != null) {
+                meaningIndex.remove(word.getWordString());
+            }
         } else {
             throw new NoWordFoundException(word.getWordString());
         }
@@ -68,6 +82,28 @@ public class WordBank {
             throw new WordAlreadyExistsException(word.getWordString());
         }
         this.wordBank.put(word.getWordString(), word);
+        prefixIndex.add(word);
+        suggestionIndex.add(word);
+        if (meaningIndex != null) {
+            meaningIndex.add(word);
+        }
+    }
+
+    /**
+     * Adds many new words to the WordBank at once.
+     * The tree is built in one linear pass when the WordBank is empty, as the words are already sorted.
+     *
+     * @param words sorted map of words that are not in the WordBank yet
+     */
+    public void addWords(SortedMap<String, Word> words) {
+        this.wordBank.putAll(words);
+        for (Word word : words.values()) {
+            prefixIndex.add(word);
+            suggestionIndex.add(word);
+            if (meaningIndex != null) {
+                meaningIndex.add(word);
+            }
+        }
     }
 
     /**
@@ -105,27 +141,58 @@ public class WordBank {
     }
 
     /**
-     * Searches for all words with a few beginning characters.
+     * Searches for all words with a few beginning characters, in alphabetical order.
      *
      * @param word a string represents the beginning substring
      * @return list of words that have that beginning substring
      * @throws NoWordFoundException if no words in the WordBank have that beginning substring
      */
     public ArrayList<String> searchWordWithBegin(String word) throws NoWordFoundException {
-        ArrayList<String> arrayList = new ArrayList<>();
-        String upperBoundWord = wordBank.ceilingKey(word);
-        if (upperBoundWord == null || !upperBoundWord.startsWith(word)) {
-            throw new NoWordFoundException(word);
+        return searchWordWithBegin(word, PrefixTrie.Order.ALPHABETICAL, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Searches for one page of the words with a few beginning characters, through the prefix index.
+     *
+     * @param begin a string represents the beginning substring
+     * @param order alphabetical, or by search count with the most searched first
+     * @param offset number of words skipped before the page
+     * @param limit largest number of words in the page
+     * @return words of the page, which is empty if the offset is past the last word
+     * @throws NoWordFoundException if no words in the WordBank have that beginning substring
+     */
+    public ArrayList<String> searchWordWithBegin(String begin, PrefixTrie.Order order, int offset, int limit)
+            throws NoWordFoundException {
+        if (prefixIndex.countWithPrefix(begin) == 0) {
+            throw new NoWordFoundException(begin);
         }
-        SortedMap<String, Word> subMap = wordBank.subMap(upperBoundWord, wordBank.lastKey());
-        for (String s : subMap.keySet()) {
-            if (s.startsWith(word)) {
-                arrayList.add(s);
-            } else {
-                break;
+        return prefixIndex.findWithPrefix(begin, order, offset, limit);
+    }
+
+    /**
+     * Counts the words with a few beginning characters.
+     *
+     * @param begin a string represents the beginning substring
+     * @return number of words that have that beginning substring
+     */
+    public int countWordsWithBegin(String begin) {
+        return prefixIndex.countWithPrefix(begin);
+    }
+
+    /**
+     * Searches the meanings and examples of all words through the full-text index.
+     *
+     * @param query words and phrases to be found
+     * @return words whose meaning or example match the query, the best match first
+     */
+    public ArrayList<String> searchMeaning(MeaningQuery query) {
+        if (meaningIndex == null) {
+            meaningIndex = new MeaningIndex();
+            for (Word word : wordBank.values()) {
+                meaningIndex.add(word);
             }
         }
-        return arrayList;
+        return meaningIndex.search(query);
     }
 
     /**
@@ -140,6 +207,9 @@ public class WordBank {
         if (wordBank.containsKey(wordToBeEdited)) {
             word = wordBank.get(wordToBeEdited);
             word.editMeaning(newMeaning);
+            if (meaningIndex != null) {
+                meaningIndex.add(word);
+            }
         } else {
             throw new NoWordFoundException(wordToBeEdited);
         }
@@ -176,10 +246,9 @@ public class WordBank {
      */
     public void deleteTags(String word, ArrayList<String> tagList,
                            ArrayList<String> deletedTags, ArrayList<String> nonExistTags) {
-        HashSet<String> tags = wordBank.get(word).getTags();
+        Word taggedWord = wordBank.get(word);
         for (String tag : tagList) {
-            if (tags.contains(tag)) {
-                tags.remove(tag);
+            if (taggedWord.removeTag(tag)) {
                 deletedTags.add(tag);
             } else {
                 nonExistTags.add(tag);
@@ -188,36 +257,16 @@ public class WordBank {
     }
 
     /**
-     * Checks spelling when user input a non-existing word.
-     * A word is considered to be close will must differs in less than its length
+     * Checks spelling when user input a non-existing word, through the suggestion index.
+     * A word is considered to be close if it differs in at most half its length, and in at most a few edits,
      * compared to the searched word.
-     * Also consider words with one swap between any 2 characters.
+     * Swapping 2 adjacent characters counts as a single edit.
      *
      * @param word word to be searched
-     * @return list of words that is considered to be close from the word user is looking for
-     */
-    public ArrayList<String> getClosedWords(String word) {
-        ArrayList<String> closedWords = new ArrayList<>();
-        for (Word w : wordBank.values()) {
-            boolean isClosed = false;
-            if (w.isClosed(word)) {
-                isClosed = true;
-            }
-            for (int i = 0; i < word.length() && !isClosed; i++) {
-                for (int j = i + 1; j < word.length() && !isClosed; j++) {
-                    StringBuilder wordWithOneSwap = new StringBuilder(word);
-                    wordWithOneSwap.setCharAt(i, word.charAt(j));
-                    wordWithOneSwap.setCharAt(j, word.charAt(i));
-                    if (w.isClosed(wordWithOneSwap.toString())) {
-                        isClosed = true;
-                    }
-                }
-            }
-            if (isClosed) {
-                closedWords.add(w.getWordString());
-            }
-        }
-        return closedWords;
+     * @return words that are considered to be close from the word user is looking for, the closest first
+     */
+    public Suggestions getClosedWords(String word) {
+        return suggestionIndex.suggest(word);
     }
 
     public void addTagToWord(String word, String tag) {
@@ -236,6 +285,9 @@ public class WordBank {
             throw new NoWordFoundException(word);
         } else {
             wordBank.get(word).addExample(example);
+            if (meaningIndex != null) {
+                meaningIndex.add(wordBank.get(word));
+            }
         }
     }
 
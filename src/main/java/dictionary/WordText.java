@@ -0,0 +1,21 @@
+package dictionary;
+
+/**
+ * Represents where the meanings and examples of words are read from when they are loaded on demand.
+ */
+public interface WordText {
+
+    /**
+     * Reads the meaning of a word.
+     * @param offset position of the text of the word
+     * @return meaning of the word
+     */
+    String getMeaning(int offset);
+
+    /**
+     * Reads the example of a word.
+     * @param offset position of the text of the word
+     * @return example of the word, or null if it has none
+     */
+    String getExample(int offset);
+}
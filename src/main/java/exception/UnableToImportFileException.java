@@ -0,0 +1,7 @@
+package exception;
+
+public class UnableToImportFileException extends WordUpException {
+    public UnableToImportFileException(String reason) {
+        super(" OOPS: I could not import the file. " + reason);
+    }
+}
@@ -0,0 +1,7 @@
+package exception;
+
+public class WrongImportFormatException extends WrongFormatException {
+    public WrongImportFormatException() {
+        super(" OOPS: Expected format \"import FILE_PATH\"");
+    }
+}
@@ -2,6 +2,6 @@ package exception;
 
 public class WrongSearchBeginFormatException extends WrongFormatException {
     public WrongSearchBeginFormatException() {
-        super(" OOPS: Expected format \"search_begin w/WORD_TO_BE_SEARCHED\"\n");
+        super(" OOPS: Expected format \"search_begin w/WORD_TO_BE_SEARCHED [o/alpha|freq] [n/LIMIT] [p/PAGE]\"\n");
     }
 }
@@ -0,0 +1,7 @@
+package exception;
+
+public class WrongSearchMeaningFormatException extends WrongFormatException {
+    public WrongSearchMeaningFormatException() {
+        super(" OOPS: Expected format \"search_meaning w/WORDS [or WORDS]...\", with \"PHRASES\" in double quotes\n");
+    }
+}
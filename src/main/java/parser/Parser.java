@@ -10,6 +10,7 @@ import command.DeleteCommand;
 import command.EditCommand;
 import command.ExitCommand;
 import command.HelpCommand;
+import command.ImportCommand;
 import command.RecentlyAddedCommand;
 import command.ListCommand;
 import command.ListTagCommand;
@@ -17,9 +18,12 @@ import command.QuizCommand;
 import command.SearchBeginCommand;
 import command.SearchCommand;
 import command.SearchFrequencyCommand;
+import command.SearchMeaningCommand;
 import command.SearchSynonymCommand;
 import command.SearchTagCommand;
 import command.SetReminderCommand;
+import dictionary.MeaningQuery;
+import dictionary.PrefixTrie;
 import dictionary.Word;
 import exception.CommandInvalidException;
 import exception.EmptyTagException;
@@ -35,6 +39,7 @@ import exception.WrongAddTagFormatException;
 import exception.WrongDeleteFormatException;
 import exception.WrongEditFormatException;
 import exception.WrongHistoryFormatException;
+import exception.WrongImportFormatException;
 import exception.WrongListFormatException;
 import exception.WrongListTagFormatException;
 import exception.WrongQuizFormatException;
@@ -42,6 +47,7 @@ import exception.WrongReminderFormatException;
 import exception.WrongSearchBeginFormatException;
 import exception.WrongSearchFormatException;
 import exception.WrongSearchFrequencyFormatException;
+import exception.WrongSearchMeaningFormatException;
 import exception.WrongSearchSynonymFormatException;
 import exception.WrongSearchTagFormatException;
 import exception.ZeroHistoryRequestException;
@@ -50,6 +56,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.regex.Pattern;
 
 /**
  * Creates a Command object after extracting information needed.
@@ -61,6 +68,11 @@ public class Parser {
      */
     private static final String VALID_REGEX = "^[a-zA-Z,. ]*$";
 
+    /**
+     * Compiled once, since imports check every field of every line of a file against it.
+     */
+    private static final Pattern VALID_PATTERN = Pattern.compile(VALID_REGEX);
+
     /**
      * Extracts the command specified in the user input and creates the respective command objects.
      *
@@ -88,6 +100,8 @@ public class Parser {
                 command = parseSearch(taskInfo);
             } else if (userCommand.equals("search_begin")) {
                 command = parseSearchBegin(taskInfo);
+            } else if (userCommand.equals("search_meaning")) {
+                command = parseSearchMeaning(taskInfo);
             } else if (userCommand.equals("list")) {
                 command = parseList(taskInfo);
             } else if (userCommand.equals("list_tags")) {
@@ -112,6 +126,8 @@ public class Parser {
                 command = parseSearchSynonym(taskInfo);
             } else if (userCommand.equals("add_example")) {
                 command = parseAddExample(taskInfo);
+            } else if (userCommand.equals("import")) {
+                command = parseImport(input);
             } else {
                 try {
                     throw new CommandInvalidException(input);
@@ -325,19 +341,81 @@ public class Parser {
         return new SearchCommand(word);
     }
 
+    /**
+     * Parses a search_begin command, with an optional order, number of words in a page and page number.
+     * @param taskInfo String array containing first stage parsed user input
+     * @return a SearchBeginCommand object
+     * @throws WrongSearchBeginFormatException when the format of the command does not match required format
+     * @throws EmptyWordException when the beginning is empty
+     * @throws InvalidCharacterException when the beginning contains invalid characters
+     */
     protected static Command parseSearchBegin(String[] taskInfo)
             throws WrongSearchBeginFormatException, EmptyWordException, InvalidCharacterException {
         if (taskInfo.length == 1 || !taskInfo[1].startsWith("w/")) {
             throw new WrongSearchBeginFormatException();
         }
-        String word = taskInfo[1].substring(2).trim();
-        if (word.length() == 0) {
+        String[] parameters = taskInfo[1].split(" ");
+        StringBuilder word = new StringBuilder(parameters[0].substring(2));
+        PrefixTrie.Order order = PrefixTrie.Order.ALPHABETICAL;
+        int limit = SearchBeginCommand.DEFAULT_LIMIT;
+        int page = 1;
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i];
+            if (parameter.startsWith("o/")) {
+                if (parameter.equals("o/alpha")) {
+                    order = PrefixTrie.Order.ALPHABETICAL;
+                } else if (parameter.equals("o/freq")) {
+                    order = PrefixTrie.Order.FREQUENCY;
+                } else {
+                    throw new WrongSearchBeginFormatException();
+                }
+            } else if (parameter.startsWith("n/")) {
+                limit = parsePositiveNumber(parameter.substring(2));
+            } else if (parameter.startsWith("p/")) {
+                page = parsePositiveNumber(parameter.substring(2));
+            } else {
+                word.append(' ').append(parameter);
+            }
+        }
+        String begin = word.toString().trim();
+        if (begin.length() == 0) {
             throw new EmptyWordException();
         }
-        if (!isValidInputWord(word)) {
+        if (!isValidInputWord(begin)) {
             throw new InvalidCharacterException();
         }
-        return new SearchBeginCommand(word);
+        return new SearchBeginCommand(begin, order, limit, page);
+    }
+
+    /**
+     * Parses a search_meaning command, whose query may join words with "or" and quote phrases.
+     * @param taskInfo String array containing first stage parsed user input
+     * @return a SearchMeaningCommand object
+     * @throws WrongSearchMeaningFormatException when the format of the command or of the query is not valid
+     * @throws EmptyWordException when the query is empty
+     */
+    protected static Command parseSearchMeaning(String[] taskInfo)
+            throws WrongSearchMeaningFormatException, EmptyWordException {
+        if (taskInfo.length == 1 || !taskInfo[1].startsWith("w/")) {
+            throw new WrongSearchMeaningFormatException();
+        }
+        String queryText = taskInfo[1].substring(2).trim();
+        if (queryText.length() == 0) {
+            throw new EmptyWordException();
+        }
+        return new SearchMeaningCommand(queryText, MeaningQuery.parse(queryText));
+    }
+
+    private static int parsePositiveNumber(String number) throws WrongSearchBeginFormatException {
+        try {
+            int value = Integer.parseInt(number);
+            if (value <= 0) {
+                throw new WrongSearchBeginFormatException();
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new WrongSearchBeginFormatException();
+        }
     }
 
     /**
@@ -535,6 +613,20 @@ public class Parser {
         return new AddExampleCommand(wordDescription, meaning);
     }
 
+    /**
+     * Parses an import command, keeping the case of the file path since file names may be case sensitive.
+     * @param input user input from command line
+     * @return an ImportCommand object
+     * @throws WrongImportFormatException when there is no file path entered with the command
+     */
+    protected static Command parseImport(String input) throws WrongImportFormatException {
+        String[] taskInfo = input.trim().split(" ", 2);
+        if (taskInfo.length == 1 || taskInfo[1].trim().isEmpty()) {
+            throw new WrongImportFormatException();
+        }
+        return new ImportCommand(taskInfo[1].trim());
+    }
+
     /**
      * Checks if an input word is in valid form.
      * Valid input is a word that contains a-z, A-Z
@@ -544,6 +636,6 @@ public class Parser {
     protected static boolean isValidInputWord(String word) {
         return ((word != null)
                 && (!word.equals(""))
-                && (word.matches(VALID_REGEX)));
+                && (VALID_PATTERN.matcher(word).matches()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,346 @@
+package parser;
+
+import dictionary.Word;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Parses a vocabulary file into words, checking every field like the add command does.
+ * A file ending with .csv holds comma separated values, where a field may be put in double quotes,
+ * one ending with .tsv holds tab separated values, and one ending with .jsonl or .json holds one JSON object a line.
+ * The columns of a csv or tsv line are the word, the meaning, and optionally the tags separated by ";"
+ * and the example. A JSON line has the keys "word", "meaning", "tags" and "example".
+ * The lines are split into chunks parsed by one thread per core.
+ */
+public class VocabularyFileParser {
+
+    /**
+     * Number of lines parsed by one task, so that progress is reported while a large file is parsed.
+     */
+    private static final int CHUNK_LINES = 16384;
+
+    private static final String TAG_SEPARATOR = ";";
+
+    enum Format {
+        CSV, TSV, JSON_LINES
+    }
+
+    private File file;
+    private Format format;
+
+    /**
+     * Creates a parser for the format given by the extension of a file.
+     * @param file vocabulary file to be parsed
+     * @throws IOException if the extension is not a known one
+     */
+    public VocabularyFileParser(File file) throws IOException {
+        this.file = file;
+        String name = file.getName().toLowerCase();
+        if (name.endsWith(".csv")) {
+            format = Format.CSV;
+        } else if (name.endsWith(".tsv")) {
+            format = Format.TSV;
+        } else if (name.endsWith(".jsonl") || name.endsWith(".json")) {
+            format = Format.JSON_LINES;
+        } else {
+            throw new IOException("Unknown vocabulary file format: " + file.getName());
+        }
+    }
+
+    /**
+     * Reads the file and parses its lines in parallel, keeping the words in the order of the lines.
+     * @param progress called with the number of lines parsed so far, each time a chunk is done
+     * @return the parsed words and the number of lines that were rejected
+     * @throws IOException if the file cannot be read
+     */
+    public Result parse(IntConsumer progress) throws IOException {
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        int chunkCount = (lines.size() + CHUNK_LINES - 1) / CHUNK_LINES;
+        Result result = new Result(lines.size());
+        if (chunkCount == 0) {
+            return result;
+        }
+        AtomicInteger parsedLines = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(chunkCount, Runtime.getRuntime().availableProcessors()));
+        try {
+            ArrayList<Future<Result>> chunks = new ArrayList<>();
+            for (int start = 0; start < lines.size(); start += CHUNK_LINES) {
+                List<String> chunk = lines.subList(start, Math.min(lines.size(), start + CHUNK_LINES));
+                boolean hasHeader = start == 0;
+                chunks.add(executor.submit(() -> {
+                    Result chunkResult = parseLines(chunk, hasHeader);
+                    progress.accept(parsedLines.addAndGet(chunk.size()));
+                    return chunkResult;
+                }));
+            }
+            for (Future<Result> chunk : chunks) {
+                result.add(chunk.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing " + file.getAbsolutePath(), e);
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to parse " + file.getAbsolutePath(), e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Parses a chunk of lines, skipping blank lines and a header line naming the columns.
+     */
+    private Result parseLines(List<String> lines, boolean hasHeader) {
+        Result result = new Result(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String[] fields = splitLine(line);
+            if (hasHeader && i == 0 && fields != null && fields.length > 0
+                    && fields[0].trim().equalsIgnoreCase("word")) {
+                continue;
+            }
+            Word word = fields == null ? null : toWord(fields);
+            if (word == null) {
+                result.rejectedLines++;
+            } else {
+                result.words.add(word);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Splits a line into the word, meaning, tags and example fields.
+     * @return the fields, or null if the line is malformed
+     */
+    String[] splitLine(String line) {
+        if (format == Format.TSV) {
+            return line.split("\t", -1);
+        } else if (format == Format.CSV) {
+            return splitCsv(line);
+        } else {
+            return JsonLine.parse(line);
+        }
+    }
+
+    private static String[] splitCsv(String line) {
+        ArrayList<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (isQuoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    isQuoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                isQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (isQuoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Creates a word from its fields, normalised like a typed command and checked like the add command.
+     * @return the word, or null if a field is missing or holds an invalid character
+     */
+    private static Word toWord(String[] fields) {
+        if (fields.length < 2) {
+            return null;
+        }
+        String description = normalise(fields[0]);
+        String meaning = normalise(fields[1]);
+        if (!Parser.isValidInputWord(description) || !Parser.isValidInputWord(meaning)) {
+            return null;
+        }
+        HashSet<String> tags = new HashSet<>();
+        if (fields.length > 2 && fields[2] != null) {
+            for (String tag : fields[2].split(TAG_SEPARATOR)) {
+                tag = normalise(tag);
+                if (tag.isEmpty()) {
+                    continue;
+                }
+                if (!Parser.isValidInputWord(tag)) {
+                    return null;
+                }
+                tags.add(tag);
+            }
+        }
+        Word word = new Word(description, meaning, tags);
+        if (fields.length > 3 && fields[3] != null && !normalise(fields[3]).isEmpty()) {
+            word.addExample(normalise(fields[3]));
+        }
+        return word;
+    }
+
+    private static String normalise(String field) {
+        return field == null ? "" : field.toLowerCase().trim().replaceAll(" +", " ");
+    }
+
+    /**
+     * Represents the words parsed from a file, in the order of its lines, and the number of rejected lines.
+     */
+    public static class Result {
+        private ArrayList<Word> words;
+        private int rejectedLines;
+        private int lineCount;
+
+        Result(int lineCount) {
+            this.words = new ArrayList<>();
+            this.lineCount = lineCount;
+        }
+
+        private void add(Result chunk) {
+            words.addAll(chunk.words);
+            rejectedLines += chunk.rejectedLines;
+        }
+
+        public ArrayList<Word> getWords() {
+            return words;
+        }
+
+        public int getRejectedLines() {
+            return rejectedLines;
+        }
+
+        public int getLineCount() {
+            return lineCount;
+        }
+    }
+
+    /**
+     * Reads the flat JSON object of one line, with string values and an array of strings for the tags.
+     */
+    private static class JsonLine {
+        private String line;
+        private int position;
+
+        private JsonLine(String line) {
+            this.line = line;
+        }
+
+        /**
+         * Parses a JSON line into the word, meaning, tags and example fields, with the tags joined by ";".
+         * @return the fields, or null if the line is not such an object
+         */
+        static String[] parse(String line) {
+            try {
+                return new JsonLine(line).readObject();
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                return null;
+            }
+        }
+
+        private String[] readObject() {
+            String[] fields = new String[4];
+            expect('{');
+            if (peek() == '}') {
+                position++;
+                return fields;
+            }
+            do {
+                String key = readString();
+                expect(':');
+                String value = peek() == '[' ? readArray() : readString();
+                if (key.equals("word")) {
+                    fields[0] = value;
+                } else if (key.equals("meaning")) {
+                    fields[1] = value;
+                } else if (key.equals("tags")) {
+                    fields[2] = value;
+                } else if (key.equals("example")) {
+                    fields[3] = value;
+                }
+            } while (skip(','));
+            expect('}');
+            return fields;
+        }
+
+        private String readArray() {
+            StringBuilder values = new StringBuilder();
+            expect('[');
+            if (skip(']')) {
+                return "";
+            }
+            do {
+                if (values.length() > 0) {
+                    values.append(TAG_SEPARATOR);
+                }
+                values.append(readString());
+            } while (skip(','));
+            expect(']');
+            return values.toString();
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (line.charAt(position) != '"') {
+                char c = line.charAt(position++);
+                if (c == '\\') {
+                    c = line.charAt(position++);
+                    if (c == 'u') {
+                        c = (char) Integer.parseInt(line.substring(position, position + 4), 16);
+                        position += 4;
+                    } else if (c == 'n' || c == 't' || c == 'r') {
+                        c = ' ';
+                    }
+                }
+                value.append(c);
+            }
+            position++;
+            return value.toString();
+        }
+
+        private char peek() {
+            while (Character.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            return line.charAt(position);
+        }
+
+        private boolean skip(char c) {
+            if (peek() == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!skip(c)) {
+                throw new IllegalArgumentException("Expected " + c + " at " + position);
+            }
+        }
+    }
+}
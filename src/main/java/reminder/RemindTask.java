@@ -1,28 +1,23 @@
 package reminder;
 
-import javafx.application.Platform;
-import storage.Storage;
-
-import java.lang.reflect.Array;
-import java.util.ArrayList;
-import java.util.Timer;
+import java.util.List;
 import java.util.TimerTask;
+import java.util.function.Consumer;
 
+/**
+ * Shows the reminders due at the same time once the timer reaches it.
+ */
 class RemindTask extends TimerTask {
-    Timer timer;
-    ArrayList<String> wordArrayList;
-    String reminderInfo;
+    private List<Reminder> reminders;
+    private Consumer<List<Reminder>> showReminders;
 
-    public RemindTask(Timer t, ArrayList<String> wordList, String remindInfo) {
-        timer = t;
-        wordArrayList = wordList;
-        reminderInfo = remindInfo;
+    RemindTask(List<Reminder> reminders, Consumer<List<Reminder>> showReminders) {
+        this.reminders = reminders;
+        this.showReminders = showReminders;
     }
 
+    @Override
     public void run() {
-        Platform.runLater(() -> {
-            new ReminderPopup(wordArrayList, reminderInfo);
-        });
-        timer.cancel(); //Terminate the timer thread
+        showReminders.accept(reminders);
     }
 }
\ No newline at end of file
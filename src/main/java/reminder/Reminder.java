@@ -2,13 +2,37 @@ package reminder;
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.Timer;
 
+/**
+ * Represents a reminder to study a list of words at a given time.
+ * Reminders are shown by the ReminderScheduler, which keeps them ordered by due time.
+ */
 public class Reminder {
-    Timer timer;
+    private Date date;
+    private ArrayList<String> wordArrayList;
+    private String reminderInfo;
 
+    /**
+     * Creates a reminder.
+     * @param date time the reminder is due
+     * @param wordArrayList words to be studied
+     * @param reminderInfo the line of the reminder as it is stored, used to delete it once it is shown
+     */
     public Reminder(Date date, ArrayList<String> wordArrayList, String reminderInfo) {
-        timer = new Timer();
-        timer.schedule(new RemindTask(timer, wordArrayList, reminderInfo), date);
+        this.date = date;
+        this.wordArrayList = wordArrayList;
+        this.reminderInfo = reminderInfo;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public ArrayList<String> getWordArrayList() {
+        return wordArrayList;
+    }
+
+    public String getReminderInfo() {
+        return reminderInfo;
     }
 }
@@ -7,8 +7,10 @@ import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 import scene.NewScene;
 import storage.Storage;
+import storage.StorageTransaction;
 
 import java.util.ArrayList;
+import java.util.List;
 
 //@@author tessa-z
 public class ReminderPopup extends NewScene {
@@ -18,14 +20,20 @@ public class ReminderPopup extends NewScene {
     protected ArrayList<String> wordArrayList;
 
     /**
-     * Creates a reminder popup that sets up the scene and window properties, and deletes the reminder from text file.
-     * @param wordList the ArrayList of words containing words tagged to the reminder
-     * @param remindInfo the String matching the text stored in reminder.txt for deletion by storage
+     * Creates a reminder popup that sets up the scene and window properties, and deletes the reminders from text file.
+     * Reminders due together, such as those past due at startup, are shown in one popup and deleted with one write.
+     * @param reminders the reminders to be shown
+     * @param storage the storage of WordUp, which keeps the reminders
      */
-    public ReminderPopup(ArrayList<String> wordList, String remindInfo) {
-        storage = new Storage();
-        storage.updateFile(remindInfo, "", "reminder");
-        wordArrayList = wordList;
+    public ReminderPopup(List<Reminder> reminders, Storage storage) {
+        this.storage = storage;
+        StorageTransaction transaction = storage.beginTransaction();
+        wordArrayList = new ArrayList<>();
+        for (Reminder reminder : reminders) {
+            transaction.updateFile(reminder.getReminderInfo(), "", "reminder");
+            wordArrayList.addAll(reminder.getWordArrayList());
+        }
+        transaction.commit();
         makeReminderPopup();
         reminderPopup.show();
     }
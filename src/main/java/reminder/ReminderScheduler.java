@@ -0,0 +1,131 @@
+package reminder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the reminders not shown yet in memory ordered by due time, and schedules on one timer thread only those due
+ * within a window ahead of now. A refill task moves the next reminders from memory to the timer as the window
+ * advances, and is only run when a reminder is about to enter the window, so reminders months away cost nothing.
+ * Reminders already past due when they are added are shown together in one batch.
+ */
+public class ReminderScheduler {
+
+    /**
+     * Time in milliseconds ahead of now within which reminders are handed to the timer.
+     */
+    static final long WINDOW_MILLISECONDS = 60 * 60 * 1000L;
+
+    private TreeMap<Long, ArrayList<Reminder>> pendingReminders;
+    private Consumer<List<Reminder>> showReminders;
+    private Timer timer;
+    private TimerTask refillTask;
+    private long windowEnd;
+    private int scheduledCount;
+
+    /**
+     * Creates a scheduler with a timer thread of its own, to be cancelled by its owner when WordUp closes.
+     * @param showReminders called on the timer thread with the reminders that are due
+     */
+    public ReminderScheduler(Consumer<List<Reminder>> showReminders) {
+        this.pendingReminders = new TreeMap<>();
+        this.showReminders = showReminders;
+        this.timer = new Timer("wordup-reminders", true);
+    }
+
+    /**
+     * Adds a reminder to be shown when it is due.
+     * @param reminder reminder to be shown
+     */
+    public void add(Reminder reminder) {
+        ArrayList<Reminder> reminders = new ArrayList<>();
+        reminders.add(reminder);
+        addAll(reminders);
+    }
+
+    /**
+     * Adds many reminders at once, such as those loaded at startup.
+     * Reminders already past due are shown together right away.
+     * @param reminders reminders to be shown
+     */
+    public synchronized void addAll(List<Reminder> reminders) {
+        long now = System.currentTimeMillis();
+        ArrayList<Reminder> pastDueReminders = new ArrayList<>();
+        for (Reminder reminder : reminders) {
+            long dueTime = reminder.getDate().getTime();
+            if (dueTime <= now) {
+                pastDueReminders.add(reminder);
+            } else {
+                pendingReminders.computeIfAbsent(dueTime, time -> new ArrayList<>()).add(reminder);
+            }
+        }
+        if (!pastDueReminders.isEmpty()) {
+            timer.schedule(new RemindTask(pastDueReminders, showReminders), 0);
+        }
+        refill();
+    }
+
+    /**
+     * Moves the reminders due within the window from memory to the timer, and schedules the next refill.
+     */
+    private synchronized void refill() {
+        windowEnd = Math.max(windowEnd, System.currentTimeMillis() + WINDOW_MILLISECONDS);
+        Iterator<Map.Entry<Long, ArrayList<Reminder>>> dueReminders =
+                pendingReminders.headMap(windowEnd, true).entrySet().iterator();
+        while (dueReminders.hasNext()) {
+            Map.Entry<Long, ArrayList<Reminder>> entry = dueReminders.next();
+            timer.schedule(new RemindTask(entry.getValue(), showReminders), new Date(entry.getKey()));
+            scheduledCount += entry.getValue().size();
+            dueReminders.remove();
+        }
+        if (refillTask != null) {
+            refillTask.cancel();
+            refillTask = null;
+        }
+        if (!pendingReminders.isEmpty()) {
+            refillTask = new TimerTask() {
+                @Override
+                public void run() {
+                    refill();
+                }
+            };
+            long refillTime = Math.max(windowEnd, pendingReminders.firstKey() - WINDOW_MILLISECONDS);
+            timer.schedule(refillTask, new Date(refillTime));
+        }
+    }
+
+    /**
+     * Counts the reminders kept in memory, not handed to the timer yet.
+     * @return number of pending reminders
+     */
+    synchronized int getPendingCount() {
+        int count = 0;
+        for (ArrayList<Reminder> reminders : pendingReminders.values()) {
+            count += reminders.size();
+        }
+        return count;
+    }
+
+    /**
+     * Counts the reminders handed to the timer since the scheduler was created.
+     * @return number of scheduled reminders
+     */
+    synchronized int getScheduledCount() {
+        return scheduledCount;
+    }
+
+    /**
+     * Stops the timer thread, dropping every reminder not shown yet.
+     */
+    public synchronized void cancel() {
+        timer.cancel();
+        pendingReminders.clear();
+    }
+}
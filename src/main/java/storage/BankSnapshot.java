@@ -0,0 +1,298 @@
+package storage;
+
+import dictionary.Bank;
+import dictionary.Word;
+import dictionary.WordText;
+import exception.WordAlreadyExistsException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Represents a copy of all data of a bank up to one operation of the journal.
+ * The copy is detached from the live bank, so it can be written to disk by another thread.
+ * Words whose meaning and example are still in a mapped snapshot file are copied as their position in it,
+ * so the text is only read by the thread writing the copy.
+ * Tags are stored once in a tag table and referred to by their index, and each word of the synonym bank
+ * refers to the index of its root word, so that the copy stays compact.
+ */
+public class BankSnapshot {
+    private long sequence;
+    private String[] words;
+    private String[] meanings;
+    private String[] examples;
+    private int[] numbersOfSearches;
+    private String[] tagNames;
+    private int[][] tagIds;
+    private String[] synonymWords;
+    private int[] synonymRoots;
+    private WordText[] texts;
+    private int[] textOffsets;
+    private HashSet<String> changedWords;
+    private boolean hasChangedSynonyms;
+
+    /**
+     * Creates a snapshot from its data, where the i-th element of each word array belongs to the i-th word.
+     * @param sequence sequence number of the last journal operation included in the snapshot
+     * @param words descriptions of all words
+     * @param meanings meanings of all words
+     * @param examples examples of all words, null if a word has no example
+     * @param numbersOfSearches search counts of all words
+     * @param tagNames all tags of the bank
+     * @param tagIds indexes in tagNames of the tags of all words
+     * @param synonymWords all words in the synonym bank
+     * @param synonymRoots indexes in synonymWords of the root word of each synonym word
+     */
+    public BankSnapshot(long sequence, String[] words, String[] meanings, String[] examples, int[] numbersOfSearches,
+                        String[] tagNames, int[][] tagIds, String[] synonymWords, int[] synonymRoots) {
+        this.sequence = sequence;
+        this.words = words;
+        this.meanings = meanings;
+        this.examples = examples;
+        this.numbersOfSearches = numbersOfSearches;
+        this.tagNames = tagNames;
+        this.tagIds = tagIds;
+        this.synonymWords = synonymWords;
+        this.synonymRoots = synonymRoots;
+    }
+
+    /**
+     * Copies the data of a bank, with the words and synonyms changed since the bank was last copied.
+     * The meaning and example of a word not loaded into memory are not read, only where to read them from.
+     * The sequence number is set once the operations made before the copy are appended to the journal.
+     * @param bank bank to be copied
+     * @return a snapshot of the bank
+     */
+    public static BankSnapshot capture(Bank bank) {
+        Word[] allWords = bank.getWordBankObject().getAllWordsAsList();
+        int size = allWords.length;
+        String[] words = new String[size];
+        String[] meanings = new String[size];
+        String[] examples = new String[size];
+        WordText[] texts = new WordText[size];
+        int[] textOffsets = new int[size];
+        int[] numbersOfSearches = new int[size];
+        int[][] tagIds = new int[size][];
+        TreeSet<String> allTags = new TreeSet<>();
+        for (Word word : allWords) {
+            allTags.addAll(word.getTags());
+        }
+        String[] tagNames = allTags.toArray(new String[0]);
+        HashMap<String, Integer> tagIndexes = indexesOf(tagNames);
+        for (int i = 0; i < size; i++) {
+            words[i] = allWords[i].getWordString();
+            texts[i] = allWords[i].getText();
+            if (texts[i] == null) {
+                meanings[i] = allWords[i].getMeaning();
+                examples[i] = allWords[i].getExample();
+            } else {
+                textOffsets[i] = allWords[i].getTextOffset();
+            }
+            numbersOfSearches[i] = allWords[i].getNumberOfSearches();
+            HashSet<String> tags = allWords[i].getTags();
+            tagIds[i] = new int[tags.size()];
+            int j = 0;
+            for (String tag : tags) {
+                tagIds[i][j++] = tagIndexes.get(tag);
+            }
+        }
+
+        HashMap<String, String> roots = bank.getSynonymBank().getAllRoots();
+        String[] synonymWords = roots.keySet().toArray(new String[0]);
+        HashMap<String, Integer> synonymIndexes = indexesOf(synonymWords);
+        int[] synonymRoots = new int[synonymWords.length];
+        for (int i = 0; i < synonymWords.length; i++) {
+            synonymRoots[i] = synonymIndexes.get(roots.get(synonymWords[i]));
+        }
+        BankSnapshot snapshot = new BankSnapshot(0, words, meanings, examples, numbersOfSearches, tagNames, tagIds,
+                synonymWords, synonymRoots);
+        snapshot.texts = texts;
+        snapshot.textOffsets = textOffsets;
+        snapshot.changedWords = new HashSet<>(bank.getChanges().getChangedWords());
+        snapshot.hasChangedSynonyms = !bank.getChanges().getChangedSynonyms().isEmpty();
+        return snapshot;
+    }
+
+    /**
+     * Copies some words into a smaller snapshot with its own tag table and no synonyms.
+     * @param indexes indexes of the words to be copied
+     * @return a snapshot of the words
+     */
+    public BankSnapshot selectWords(List<Integer> indexes) {
+        int size = indexes.size();
+        String[] selectedWords = new String[size];
+        String[] selectedMeanings = new String[size];
+        String[] selectedExamples = new String[size];
+        WordText[] selectedTexts = new WordText[size];
+        int[] selectedTextOffsets = new int[size];
+        int[] selectedNumbersOfSearches = new int[size];
+        int[][] selectedTagIds = new int[size][];
+        HashMap<Integer, Integer> newTagIds = new HashMap<>();
+        ArrayList<String> selectedTagNames = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int index = indexes.get(i);
+            selectedWords[i] = words[index];
+            if (texts == null || texts[index] == null) {
+                selectedMeanings[i] = meanings[index];
+                selectedExamples[i] = examples[index];
+            } else {
+                selectedTexts[i] = texts[index];
+                selectedTextOffsets[i] = textOffsets[index];
+            }
+            selectedNumbersOfSearches[i] = numbersOfSearches[index];
+            selectedTagIds[i] = new int[tagIds[index].length];
+            for (int j = 0; j < tagIds[index].length; j++) {
+                int tagId = tagIds[index][j];
+                if (!newTagIds.containsKey(tagId)) {
+                    newTagIds.put(tagId, selectedTagNames.size());
+                    selectedTagNames.add(tagNames[tagId]);
+                }
+                selectedTagIds[i][j] = newTagIds.get(tagId);
+            }
+        }
+        BankSnapshot snapshot = new BankSnapshot(sequence, selectedWords, selectedMeanings, selectedExamples,
+                selectedNumbersOfSearches, selectedTagNames.toArray(new String[0]), selectedTagIds,
+                new String[0], new int[0]);
+        snapshot.texts = selectedTexts;
+        snapshot.textOffsets = selectedTextOffsets;
+        return snapshot;
+    }
+
+    /**
+     * Copies the synonyms into a snapshot with no words.
+     * @return a snapshot of the synonyms
+     */
+    public BankSnapshot selectSynonyms() {
+        return new BankSnapshot(sequence, new String[0], new String[0], new String[0], new int[0], new String[0],
+                new int[0][], synonymWords, synonymRoots);
+    }
+
+    private static HashMap<String, Integer> indexesOf(String[] values) {
+        HashMap<String, Integer> indexes = new HashMap<>(values.length * 2);
+        for (int i = 0; i < values.length; i++) {
+            indexes.put(values[i], i);
+        }
+        return indexes;
+    }
+
+    /**
+     * Rebuilds a bank from the snapshot.
+     * @return a bank with no recorded changes
+     */
+    public Bank toBank() {
+        Bank bank = new Bank();
+        loadInto(bank);
+        return bank;
+    }
+
+    /**
+     * Adds the words and synonyms of the snapshot to a bank, without recording them as changes.
+     * @param bank bank the words and synonyms are added to
+     */
+    public void loadInto(Bank bank) {
+        try {
+            for (int i = 0; i < words.length; i++) {
+                HashSet<String> tags = new HashSet<>();
+                for (int tagId : tagIds[i]) {
+                    tags.add(tagNames[tagId]);
+                }
+                Word word;
+                if (texts == null || texts[i] == null) {
+                    word = new Word(words[i], meanings[i], tags);
+                    word.addExample(examples[i]);
+                } else {
+                    word = new Word(words[i], texts[i], textOffsets[i], tags);
+                }
+                word.setNumberOfSearches(numbersOfSearches[i]);
+                bank.loadWord(word);
+            }
+        } catch (WordAlreadyExistsException e) {
+            e.printStackTrace();
+        }
+        for (int i = 0; i < synonymWords.length; i++) {
+            bank.loadSynonym(synonymWords[i], synonymWords[synonymRoots[i]]);
+        }
+    }
+
+    /**
+     * Leaves the meanings and examples of the words in a mapped file, so that words loaded from the snapshot
+     * only read them when asked for. The snapshot then has no meanings and examples of its own.
+     * @param text where the meanings and examples are read from
+     * @param textOffsets position of the meaning and example of each word in the text
+     */
+    void setText(WordText text, int[] textOffsets) {
+        this.texts = new WordText[words.length];
+        Arrays.fill(texts, text);
+        this.textOffsets = textOffsets;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public int getSize() {
+        return words.length;
+    }
+
+    public String[] getWords() {
+        return words;
+    }
+
+    /**
+     * Gets the meaning of a word, read from the mapped file if the snapshot has no meaning of its own for it.
+     * @param index index of the word
+     * @return meaning of the word
+     */
+    public String getMeaning(int index) {
+        return texts == null || texts[index] == null ? meanings[index] : texts[index].getMeaning(textOffsets[index]);
+    }
+
+    /**
+     * Gets the example of a word, read from the mapped file if the snapshot has no example of its own for it.
+     * @param index index of the word
+     * @return example of the word, or null if it has none
+     */
+    public String getExample(int index) {
+        return texts == null || texts[index] == null ? examples[index] : texts[index].getExample(textOffsets[index]);
+    }
+
+    public int[] getNumbersOfSearches() {
+        return numbersOfSearches;
+    }
+
+    public String[] getTagNames() {
+        return tagNames;
+    }
+
+    public int[][] getTagIds() {
+        return tagIds;
+    }
+
+    public String[] getSynonymWords() {
+        return synonymWords;
+    }
+
+    public int[] getSynonymRoots() {
+        return synonymRoots;
+    }
+
+    /**
+     * Gets the words changed or deleted since the bank was last copied.
+     * @return set of words, empty for a snapshot that was read from a file
+     */
+    public HashSet<String> getChangedWords() {
+        return changedWords == null ? new HashSet<>() : changedWords;
+    }
+
+    public boolean hasChangedSynonyms() {
+        return hasChangedSynonyms;
+    }
+}
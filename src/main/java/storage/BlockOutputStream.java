@@ -0,0 +1,108 @@
+package storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Writes data as a series of blocks compressed with Deflate, each checked by a CRC32C of its compressed bytes,
+ * followed by an index of the blocks so that they can be verified and inflated in parallel by a BlockReader.
+ * Blocks only end where a record ends, so that a record can be read from a single block.
+ * The file ends with the index, the number of blocks, a CRC32C of the index and the footer magic number.
+ */
+public class BlockOutputStream extends OutputStream {
+    static final int FOOTER_MAGIC = 0x57554246;
+    static final int INDEX_ENTRY_LENGTH = 12;
+    static final int FOOTER_LENGTH = 12;
+
+    /**
+     * Number of uncompressed bytes after which a block ends at the end of the next record.
+     */
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    private OutputStream out;
+    private ByteArrayOutputStream block;
+    private ByteArrayOutputStream index;
+    private DataOutputStream indexOut;
+    private Deflater deflater;
+    private byte[] compressed;
+    private int blockCount;
+
+    /**
+     * Creates a stream writing its blocks to another stream.
+     * @param out stream the blocks are written to, which is not closed by this stream
+     */
+    public BlockOutputStream(OutputStream out) {
+        this.out = out;
+        this.block = new ByteArrayOutputStream(BLOCK_SIZE * 2);
+        this.index = new ByteArrayOutputStream();
+        this.indexOut = new DataOutputStream(index);
+        this.deflater = new Deflater(Deflater.BEST_SPEED);
+        this.compressed = new byte[BLOCK_SIZE];
+    }
+
+    @Override
+    public void write(int b) {
+        block.write(b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        block.write(bytes, offset, length);
+    }
+
+    /**
+     * Marks the end of a record, ending the block if it is full.
+     * @throws IOException if the block cannot be written
+     */
+    public void endRecord() throws IOException {
+        if (block.size() >= BLOCK_SIZE) {
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (block.size() == 0) {
+            return;
+        }
+        byte[] uncompressed = block.toByteArray();
+        deflater.reset();
+        deflater.setInput(uncompressed);
+        deflater.finish();
+        ByteArrayOutputStream compressedBlock = new ByteArrayOutputStream(uncompressed.length / 2 + 64);
+        while (!deflater.finished()) {
+            int length = deflater.deflate(compressed);
+            compressedBlock.write(compressed, 0, length);
+        }
+        byte[] compressedBytes = compressedBlock.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(compressedBytes);
+        out.write(compressedBytes);
+        indexOut.writeInt(compressedBytes.length);
+        indexOut.writeInt(uncompressed.length);
+        indexOut.writeInt((int) crc.getValue());
+        blockCount++;
+        block.reset();
+    }
+
+    /**
+     * Writes the last block, the index and the footer. The underlying stream is left open.
+     * @throws IOException if the blocks cannot be written
+     */
+    public void finish() throws IOException {
+        writeBlock();
+        indexOut.writeInt(blockCount);
+        byte[] indexBytes = index.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(indexBytes);
+        DataOutputStream footer = new DataOutputStream(out);
+        footer.write(indexBytes);
+        footer.writeInt((int) crc.getValue());
+        footer.writeInt(FOOTER_MAGIC);
+        footer.flush();
+        deflater.end();
+    }
+}
@@ -0,0 +1,162 @@
+package storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the blocks written by a BlockOutputStream from a mapped file.
+ * The offsets of the uncompressed data are counted from the start of the first block, as if it was not compressed.
+ */
+public class BlockReader {
+    private static final int CACHED_BLOCKS = 4;
+
+    private ByteBuffer file;
+    private String name;
+    private int[] compressedOffsets;
+    private int[] compressedLengths;
+    private int[] offsets;
+    private int[] lengths;
+    private int[] checksums;
+    private int length;
+    private LinkedHashMap<Integer, byte[]> cache;
+
+    /**
+     * Reads the index of the blocks at the end of a file.
+     * @param file the mapped file
+     * @param dataStart position of the first block in the file
+     * @param name name of the file, used in error messages
+     * @throws IOException if the index is damaged
+     */
+    public BlockReader(ByteBuffer file, int dataStart, String name) throws IOException {
+        this.file = file;
+        this.name = name;
+        int footerStart = file.limit() - BlockOutputStream.FOOTER_LENGTH;
+        if (footerStart < dataStart || file.getInt(footerStart + 8) != BlockOutputStream.FOOTER_MAGIC) {
+            throw new IOException("Snapshot is truncated: " + name);
+        }
+        int blockCount = file.getInt(footerStart);
+        long indexStart = footerStart - (long) blockCount * BlockOutputStream.INDEX_ENTRY_LENGTH;
+        if (blockCount < 0 || indexStart < dataStart) {
+            throw new IOException("Snapshot is truncated: " + name);
+        }
+        if (checksum((int) indexStart, footerStart + Integer.BYTES - (int) indexStart)
+                != file.getInt(footerStart + Integer.BYTES)) {
+            throw new IOException("Snapshot index is damaged: " + name);
+        }
+        compressedOffsets = new int[blockCount];
+        compressedLengths = new int[blockCount];
+        offsets = new int[blockCount];
+        lengths = new int[blockCount];
+        checksums = new int[blockCount];
+        int compressedOffset = dataStart;
+        for (int i = 0; i < blockCount; i++) {
+            int entry = (int) indexStart + i * BlockOutputStream.INDEX_ENTRY_LENGTH;
+            compressedOffsets[i] = compressedOffset;
+            compressedLengths[i] = file.getInt(entry);
+            offsets[i] = length;
+            lengths[i] = file.getInt(entry + 4);
+            checksums[i] = file.getInt(entry + 8);
+            compressedOffset += compressedLengths[i];
+            length += lengths[i];
+        }
+        if (compressedOffset != indexStart) {
+            throw new IOException("Snapshot index is damaged: " + name);
+        }
+        this.cache = new LinkedHashMap<Integer, byte[]>(CACHED_BLOCKS * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+                return size() > CACHED_BLOCKS;
+            }
+        };
+    }
+
+    /**
+     * Verifies the checksum of every block and inflates all of them, in parallel.
+     * @return the uncompressed data
+     * @throws IOException if a block is damaged
+     */
+    public byte[] readAll() throws IOException {
+        byte[] data = new byte[length];
+        try {
+            IntStream.range(0, offsets.length).parallel().forEach(i -> {
+                try {
+                    inflate(i, data, offsets[i]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return data;
+    }
+
+    /**
+     * Gives the uncompressed data from an offset to the end of the block holding it, inflating the block
+     * unless it was read recently. The checksum of the block is not verified again.
+     * @param offset offset in the uncompressed data
+     * @return a buffer positioned at the offset
+     */
+    public synchronized ByteBuffer bufferAt(int offset) {
+        int index = Arrays.binarySearch(offsets, offset);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        byte[] block = cache.get(index);
+        if (block == null) {
+            block = new byte[lengths[index]];
+            try {
+                inflate(index, block, 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            cache.put(index, block);
+        }
+        return ByteBuffer.wrap(block, offset - offsets[index], block.length - (offset - offsets[index]));
+    }
+
+    private void inflate(int index, byte[] data, int offset) throws IOException {
+        if (checksum(compressedOffsets[index], compressedLengths[index]) != checksums[index]) {
+            throw new IOException("Snapshot block " + index + " is damaged: " + name);
+        }
+        ByteBuffer compressed = file.duplicate();
+        compressed.position(compressedOffsets[index]);
+        compressed.limit(compressedOffsets[index] + compressedLengths[index]);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int inflated = 0;
+            while (inflated < lengths[index] && !inflater.finished()) {
+                int count = inflater.inflate(data, offset + inflated, lengths[index] - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            if (inflated != lengths[index]) {
+                throw new IOException("Snapshot block " + index + " is damaged: " + name);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Snapshot block " + index + " is damaged: " + name, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private int checksum(int start, int count) {
+        ByteBuffer bytes = file.duplicate();
+        bytes.position(start);
+        bytes.limit(start + count);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
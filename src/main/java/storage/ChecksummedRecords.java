@@ -0,0 +1,102 @@
+package storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes the binary records of the journal and the counter file.
+ * Each record is its length and the CRC32 of its payload, followed by the payload, so that a record torn by a crash
+ * at the end of a file is found and cut off when the file is read.
+ */
+final class ChecksummedRecords {
+
+    /**
+     * Length of the record length and checksum written before each record.
+     */
+    static final int HEADER_LENGTH = 8;
+
+    /**
+     * Reads the payload of one record.
+     */
+    interface PayloadReader {
+        void read(DataInputStream payload) throws IOException;
+    }
+
+    private ChecksummedRecords() {
+    }
+
+    /**
+     * Reads every complete record of a file in order, and cuts off the file after the last complete record.
+     * @param file file to be read, which may not exist
+     * @param reader called with the payload of each record
+     * @return number of records read
+     * @throws IOException if the file cannot be read
+     */
+    static int readAll(File file, PayloadReader reader) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        int count = 0;
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                byte[] payload = readRecord(in);
+                if (payload == null) {
+                    break;
+                }
+                validLength += HEADER_LENGTH + payload.length;
+                count++;
+                reader.read(new DataInputStream(new ByteArrayInputStream(payload)));
+            }
+        }
+        if (validLength < file.length()) {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+                randomAccessFile.setLength(validLength);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads the payload of the next record.
+     * @return the payload, or null at the end of the file or at a torn record
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length <= 0) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == checksum ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes one record holding a payload.
+     * @param out where the record is written
+     * @param payload payload of the record
+     * @throws IOException if the record cannot be written
+     */
+    static void write(DataOutputStream out, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        out.writeInt(payload.length);
+        out.writeInt((int) crc.getValue());
+        out.write(payload);
+    }
+}
@@ -0,0 +1,109 @@
+package storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Represents the file holding the search count of every word that was searched.
+ * Each batch of counts is appended as one record holding the new counts of the words in it, checked with a CRC32
+ * like the records of the journal, so that the last count written for a word is its current count.
+ * Once most of the entries in the file are replaced counts, it is rewritten as one batch of all counts.
+ */
+public class CounterFile {
+    /**
+     * Number of entries the file may hold beyond the number of words counted before it is rewritten.
+     */
+    private static final int COMPACTION_ENTRIES = 1024;
+
+    private File file;
+    private HashMap<String, Integer> counts;
+    private int entryCount;
+
+    public CounterFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the current count of every word, dropping a batch torn by a crash at the end of the file.
+     * @return map from each word to its search count
+     * @throws IOException if the file cannot be read
+     */
+    public HashMap<String, Integer> read() throws IOException {
+        counts = new HashMap<>();
+        entryCount = 0;
+        ChecksummedRecords.readAll(file, record -> {
+            int size = record.readInt();
+            for (int i = 0; i < size; i++) {
+                putCount(SnapshotFile.readString(record), record.readInt());
+            }
+            entryCount += size;
+        });
+        return new HashMap<>(counts);
+    }
+
+    /**
+     * Appends a batch of new counts with one write, and waits until it reaches the disk.
+     * A count of 0 forgets the word, such as after it is deleted.
+     * @param batch map from each word to its new search count
+     * @throws IOException if the file cannot be written
+     */
+    public void append(Map<String, Integer> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (counts == null) {
+            read();
+        }
+        for (Map.Entry<String, Integer> entry : batch.entrySet()) {
+            putCount(entry.getKey(), entry.getValue());
+        }
+        entryCount += batch.size();
+        if (entryCount > counts.size() * 2 + COMPACTION_ENTRIES) {
+            compact();
+            return;
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(toRecord(batch));
+            out.getChannel().force(false);
+        }
+    }
+
+    /**
+     * Rewrites the file as one batch of all counts, through a temporary file moved over it.
+     */
+    private void compact() throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            out.write(toRecord(counts));
+            out.getChannel().force(false);
+        }
+        SnapshotFile.moveAtomically(tempFile, file);
+        entryCount = counts.size();
+    }
+
+    private void putCount(String word, int count) {
+        if (count == 0) {
+            counts.remove(word);
+        } else {
+            counts.put(word, count);
+        }
+    }
+
+    private static byte[] toRecord(Map<String, Integer> batch) throws IOException {
+        ByteArrayOutputStream payloadBuffer = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBuffer);
+        payload.writeInt(batch.size());
+        for (Map.Entry<String, Integer> entry : batch.entrySet()) {
+            SnapshotFile.writeString(payload, entry.getKey());
+            payload.writeInt(entry.getValue());
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ChecksummedRecords.write(new DataOutputStream(buffer), payloadBuffer.toByteArray());
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,224 @@
+package storage;
+
+import dictionary.Bank;
+import dictionary.BankOperation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the bank in the excel file, with the journal and sharded snapshot files in front of it.
+ * Changes are appended to the journal, which is folded into the snapshot shards of the changed words every so many
+ * operations, and the excel file is exported together with the snapshot.
+ * A snapshot written as one file by earlier versions is still read, and replaced by shards at the next snapshot.
+ * Reminders are kept in the reminder text file, and search counts in the counter file,
+ * whose counts replace those of the snapshot and journal when loaded.
+ */
+public class ExcelBackend implements StorageBackend {
+
+    /**
+     * Number of operations kept in the journal before they are folded into a new snapshot.
+     */
+    private static final int COMPACTION_OPERATIONS = 1000;
+
+    /**
+     * Number of words of each shard whose meaning and example are kept in memory when they are loaded on demand.
+     */
+    private static final int TEXT_CACHE_SIZE = 256;
+
+    private File excelFile;
+    private File reminderFile;
+    private Journal journal;
+    private SnapshotFile snapshotFile;
+    private ShardedSnapshotFile shardedSnapshotFile;
+    private CounterFile counterFile;
+    private ArrayList<BankOperation> pendingOperations;
+    private boolean isImported;
+    private boolean isFullWrite;
+    private boolean isLazy;
+
+    /**
+     * Creates the backend keeping its files at the given paths.
+     * @param excelFile the excel file
+     * @param journalFile the journal file
+     * @param snapshotFile the snapshot file of earlier versions
+     * @param shardManifestFile the manifest file of the sharded snapshot
+     * @param reminderFile the reminder text file
+     * @param counterFile the search counter file
+     * @param isLazy true to leave the meanings and examples in the shard files until they are asked for
+     */
+    public ExcelBackend(File excelFile, File journalFile, File snapshotFile, File shardManifestFile,
+                        File reminderFile, File counterFile, boolean isLazy) {
+        this.excelFile = excelFile;
+        this.reminderFile = reminderFile;
+        this.journal = new Journal(journalFile);
+        this.snapshotFile = new SnapshotFile(snapshotFile);
+        this.shardedSnapshotFile = new ShardedSnapshotFile(shardManifestFile);
+        this.counterFile = new CounterFile(counterFile);
+        this.pendingOperations = new ArrayList<>();
+        this.isLazy = isLazy;
+    }
+
+    /**
+     * Loads the bank from the last snapshot, replays the journal written after it and merges the search counts.
+     * In lazy mode, the words loaded from shards read their meanings and examples from the mapped shard files.
+     * The excel file is imported instead when there is no snapshot yet,
+     * and a snapshot is then asked for so that the next start does not need to read the excel file.
+     * @return Bank object containing all data for dictionary
+     */
+    @Override
+    public Bank load() throws IOException {
+        Bank bank = null;
+        long snapshotSequence = 0;
+        if (shardedSnapshotFile.exists()) {
+            try {
+                bank = isLazy ? shardedSnapshotFile.readLazily(TEXT_CACHE_SIZE) : shardedSnapshotFile.read();
+                snapshotSequence = shardedSnapshotFile.getSequence();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        isFullWrite = bank == null;
+        if (bank == null && snapshotFile.exists()) {
+            try {
+                BankSnapshot snapshot = snapshotFile.read();
+                bank = snapshot.toBank();
+                snapshotSequence = snapshot.getSequence();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (bank == null) {
+            bank = importExcelFile();
+            isImported = !bank.getWordBankObject().isEmpty();
+        }
+        journal.replay(bank, snapshotSequence);
+        for (Map.Entry<String, Integer> entry : counterFile.read().entrySet()) {
+            bank.loadSearchCount(entry.getKey(), entry.getValue());
+        }
+        return bank;
+    }
+
+    /**
+     * Imports data from excel file to Bank, creating an empty excel file if there is none.
+     * @return Bank object containing all data for dictionary
+     */
+    public Bank importExcelFile() {
+        Bank bank = new Bank();
+        try {
+            if (!excelFile.exists()) {
+                new ExcelStreamWriter(excelFile.getAbsolutePath()).write(bank);
+                return bank;
+            }
+            new ExcelStreamReader(excelFile).read(bank);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        bank.getChanges().clear();
+        return bank;
+    }
+
+    @Override
+    public void upsertWord(String word, String meaning) {
+        pendingOperations.add(new BankOperation(BankOperation.Type.ADD, word, meaning));
+    }
+
+    @Override
+    public void deleteWord(String word) {
+        pendingOperations.add(new BankOperation(BankOperation.Type.DELETE, word, null));
+    }
+
+    @Override
+    public void setExample(String word, String example) {
+        pendingOperations.add(new BankOperation(BankOperation.Type.EXAMPLE, word, example));
+    }
+
+    @Override
+    public void addTag(String word, String tag) {
+        pendingOperations.add(new BankOperation(BankOperation.Type.TAG, word, tag));
+    }
+
+    @Override
+    public void removeTag(String word, String tag) {
+        pendingOperations.add(new BankOperation(BankOperation.Type.UNTAG, word, tag));
+    }
+
+    @Override
+    public void addSynonym(String word, String synonym) {
+        pendingOperations.add(new BankOperation(BankOperation.Type.SYNONYM, word, synonym));
+    }
+
+    @Override
+    public void saveSearchCounts(Map<String, Integer> searchCounts) throws IOException {
+        counterFile.append(searchCounts);
+    }
+
+    @Override
+    public List<String> loadReminders() throws IOException {
+        return RecordFile.open(reminderFile).readAll();
+    }
+
+    @Override
+    public void addReminder(String reminder) throws IOException {
+        RecordFile.open(reminderFile).append(Collections.singletonList(reminder));
+    }
+
+    @Override
+    public void removeReminder(String reminder) throws IOException {
+        RecordFile.open(reminderFile).deleteFirst(reminder);
+    }
+
+    /**
+     * Appends the operations handed over since the last commit to the journal with one write.
+     * @throws IOException if the journal cannot be written
+     */
+    @Override
+    public void commit() throws IOException {
+        try {
+            journal.append(pendingOperations);
+        } finally {
+            pendingOperations = new ArrayList<>();
+        }
+    }
+
+    @Override
+    public int getOperationCount() {
+        return journal.getOperationCount();
+    }
+
+    /**
+     * Asks for a snapshot once the journal is long enough, or right after the bank was imported from excel.
+     */
+    @Override
+    public boolean needsSnapshot(int operationCount) {
+        if (isImported) {
+            isImported = false;
+            return true;
+        }
+        return operationCount >= COMPACTION_OPERATIONS;
+    }
+
+    /**
+     * Rotates the journal and writes the shards of the changed words, so that the journal only keeps
+     * the operations made after them. Every shard is written if the bank was not loaded from shards.
+     * The excel file is exported too if any row changed since it was last written.
+     */
+    @Override
+    public void writeSnapshot(BankSnapshot snapshot, boolean hasChangedRows) throws IOException {
+        journal.rotate();
+        snapshot.setSequence(journal.getLastSequence());
+        shardedSnapshotFile.write(snapshot, isFullWrite);
+        isFullWrite = false;
+        journal.deleteRotated();
+        if (snapshotFile.exists()) {
+            snapshotFile.delete();
+        }
+        if (hasChangedRows) {
+            new ExcelStreamWriter(excelFile.getAbsolutePath()).write(snapshot);
+        }
+    }
+}
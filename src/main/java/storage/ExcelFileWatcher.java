@@ -0,0 +1,211 @@
+package storage;
+
+import dictionary.Bank;
+import dictionary.BankOperation;
+import dictionary.Word;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches the excel file for edits made in a spreadsheet program, on a thread of its own.
+ * Once the file has not changed for a moment, it is streamed into a new bank and compared row by row with the
+ * bank read from the file before, and the differences are handed over as operations to be applied to the live bank.
+ * Comparing two versions of the file, rather than the file with the live bank, keeps the changes made in WordUp since
+ * the file was last exported, and leaves only applying the operations to the thread that owns the bank.
+ * Versions of the file exported by WordUp itself only replace the bank it is compared with.
+ */
+public class ExcelFileWatcher implements Runnable {
+    private static final Logger LOGGER = Logger.getLogger(ExcelFileWatcher.class.getName());
+
+    /**
+     * Time in milliseconds the file must stay unchanged before it is read, since a save raises several events.
+     */
+    private static final long QUIET_MILLISECONDS = 500;
+
+    private File excelFile;
+    private Consumer<List<BankOperation>> changeHandler;
+    private WatchService watchService;
+    private Bank lastBank;
+
+    /**
+     * Creates a watcher of the excel file.
+     * @param excelFile the excel file
+     * @param changeHandler called on the watcher thread with the operations that turn the last version of the file
+     *                      into the new one
+     */
+    public ExcelFileWatcher(File excelFile, Consumer<List<BankOperation>> changeHandler) {
+        this.excelFile = excelFile.getAbsoluteFile();
+        this.changeHandler = changeHandler;
+    }
+
+    /**
+     * Starts watching the directory of the excel file on a daemon thread.
+     * @throws IOException if the directory cannot be watched
+     */
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        excelFile.getParentFile().toPath().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread thread = new Thread(this, "wordup-excel-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the excel file.
+     */
+    public void stop() {
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads the current version of the file, and then waits for it to change.
+     */
+    @Override
+    public void run() {
+        lastBank = readFile();
+        if (lastBank == null) {
+            lastBank = new Bank();
+        }
+        try {
+            while (true) {
+                if (!isExcelFileChanged(watchService.take())) {
+                    continue;
+                }
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_MILLISECONDS, TimeUnit.MILLISECONDS)) != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                try {
+                    reload();
+                } catch (RuntimeException e) {
+                    // One version of the file that cannot be applied must not stop the watching of later ones.
+                    LOGGER.log(Level.WARNING, "Unable to reload " + excelFile.getName(), e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // The watcher was stopped.
+        }
+    }
+
+    private boolean isExcelFileChanged(WatchKey key) {
+        boolean isChanged = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path && event.context().toString().equals(excelFile.getName())) {
+                isChanged = true;
+            }
+        }
+        key.reset();
+        return isChanged;
+    }
+
+    /**
+     * Reads the changed file and hands over the operations found by comparing it with the last version,
+     * unless the file was written by WordUp itself.
+     */
+    private void reload() {
+        boolean isExported = ExcelStreamWriter.isLastWritten(excelFile);
+        Bank newBank = readFile();
+        if (newBank == null) {
+            return;
+        }
+        List<BankOperation> operations = diff(lastBank, newBank);
+        lastBank = newBank;
+        if (!isExported && !operations.isEmpty()) {
+            LOGGER.fine("Reloading " + operations.size() + " changes from " + excelFile.getName());
+            changeHandler.accept(operations);
+        }
+    }
+
+    private Bank readFile() {
+        if (!excelFile.exists()) {
+            return null;
+        }
+        try {
+            Bank bank = new Bank();
+            new ExcelStreamReader(excelFile).read(bank);
+            return bank;
+        } catch (IOException | RuntimeException e) {
+            // The file may still be being written, and is read again on its next change.
+            LOGGER.warning("Unable to reload " + excelFile.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Finds the operations that turn one bank into another: deleting, adding and editing words,
+     * setting their examples, adding and removing their tags, and joining synonyms.
+     * Synonyms that are no longer joined are kept, as the synonym bank cannot split them.
+     * @param oldBank the bank before
+     * @param newBank the bank after
+     * @return the operations in the order they should be applied
+     */
+    static List<BankOperation> diff(Bank oldBank, Bank newBank) {
+        ArrayList<BankOperation> operations = new ArrayList<>();
+        Map<String, Word> oldWords = oldBank.getWordBankData();
+        Map<String, Word> newWords = newBank.getWordBankData();
+        for (String word : oldWords.keySet()) {
+            if (!newWords.containsKey(word)) {
+                operations.add(new BankOperation(BankOperation.Type.DELETE, word, null));
+            }
+        }
+        for (Word newWord : newWords.values()) {
+            String word = newWord.getWordString();
+            Word oldWord = oldWords.get(word);
+            if (oldWord == null || !Objects.equals(oldWord.getMeaning(), newWord.getMeaning())) {
+                operations.add(new BankOperation(BankOperation.Type.ADD, word, newWord.getMeaning()));
+            }
+            String oldExample = oldWord == null ? null : oldWord.getExample();
+            if (!Objects.equals(oldExample, newWord.getExample())) {
+                operations.add(new BankOperation(BankOperation.Type.EXAMPLE, word, newWord.getExample()));
+            }
+            HashSet<String> oldTags = oldWord == null ? new HashSet<>() : oldWord.getTags();
+            HashSet<String> newTags = newWord.getTags();
+            for (String tag : newTags) {
+                if (!oldTags.contains(tag)) {
+                    operations.add(new BankOperation(BankOperation.Type.TAG, word, tag));
+                }
+            }
+            for (String tag : oldTags) {
+                if (!newTags.contains(tag)) {
+                    operations.add(new BankOperation(BankOperation.Type.UNTAG, word, tag));
+                }
+            }
+        }
+        HashMap<String, String> oldRoots = oldBank.getSynonymBank().getAllRoots();
+        for (Map.Entry<String, String> entry : newBank.getSynonymBank().getAllRoots().entrySet()) {
+            String word = entry.getKey();
+            String root = entry.getValue();
+            if (!word.equals(root) && (!oldRoots.containsKey(word) || !oldRoots.containsKey(root)
+                    || !oldRoots.get(word).equals(oldRoots.get(root)))) {
+                operations.add(new BankOperation(BankOperation.Type.SYNONYM, word, root));
+            }
+        }
+        return operations;
+    }
+}
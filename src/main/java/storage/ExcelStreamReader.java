@@ -0,0 +1,243 @@
+package storage;
+
+import dictionary.Bank;
+import dictionary.Word;
+import exception.WordAlreadyExistsException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Reads the excel file into a bank through POI's SAX event API.
+ * The WordBank, TagBank and SynonymBank sheets are parsed at the same time, each on its own thread,
+ * into rows of cells kept aside. The rows are then added to the bank one sheet after another on the calling thread,
+ * so that words exist before their tags and synonyms are added, and the workbook is never built in memory.
+ */
+public class ExcelStreamReader {
+    private static final Logger LOGGER = Logger.getLogger(ExcelStreamReader.class.getName());
+    private static final int WORD_BANK_SHEET = 0;
+    private static final int TAG_BANK_SHEET = 1;
+    private static final int SYNONYM_BANK_SHEET = 2;
+    private static final String[] SHEET_NAMES = {"WordBank sheet", "TagBank sheet", "SynonymBank sheet"};
+
+    private File excelFile;
+    private PhaseTimer timer;
+
+    public ExcelStreamReader(File excelFile) {
+        this.excelFile = excelFile;
+        this.timer = new PhaseTimer();
+    }
+
+    /**
+     * Reads the WordBank, TagBank and SynonymBank sheets of the excel file into a bank,
+     * and reports the time taken to parse each sheet and to add the rows to the bank.
+     * @param bank bank the words, tags and synonyms are added to
+     * @throws IOException if the excel file cannot be read
+     */
+    public void read(Bank bank) throws IOException {
+        ArrayList<RowHandler> handlers = new ArrayList<>();
+        try (OPCPackage excelPackage = OPCPackage.open(excelFile, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(excelPackage);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(excelPackage);
+            StylesTable styles = reader.getStylesTable();
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            ArrayList<InputStream> sheetData = new ArrayList<>();
+            for (int sheet = WORD_BANK_SHEET; sheet <= SYNONYM_BANK_SHEET && sheets.hasNext(); sheet++) {
+                sheetData.add(sheets.next());
+            }
+            if (sheetData.isEmpty()) {
+                return;
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(sheetData.size());
+            try {
+                ArrayList<Future<RowHandler>> parsedSheets = new ArrayList<>();
+                for (int sheet = 0; sheet < sheetData.size(); sheet++) {
+                    RowHandler handler = new RowHandler(sheet);
+                    InputStream data = sheetData.get(sheet);
+                    parsedSheets.add(executor.submit(() -> parseSheet(handler, data, styles, strings)));
+                }
+                for (Future<RowHandler> parsedSheet : parsedSheets) {
+                    RowHandler handler = parsedSheet.get();
+                    timer.recordDuration(SHEET_NAMES[handler.sheet], handler.parseTime);
+                    handlers.add(handler);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + excelFile.getAbsolutePath(), e);
+            } catch (ExecutionException e) {
+                throw new IOException("Unable to read " + excelFile.getAbsolutePath(), e.getCause());
+            } finally {
+                executor.shutdown();
+                for (InputStream data : sheetData) {
+                    data.close();
+                }
+            }
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("Unable to read " + excelFile.getAbsolutePath(), e);
+        }
+        long startTime = System.nanoTime();
+        for (RowHandler handler : handlers) {
+            handler.addRowsTo(bank);
+        }
+        timer.record("merge", startTime);
+        LOGGER.fine("Read " + excelFile.getName() + ": " + timer);
+    }
+
+    /**
+     * Parses one sheet into the rows kept by its handler, keeping the time it took.
+     */
+    private RowHandler parseSheet(RowHandler handler, InputStream sheetData, StylesTable styles,
+                                  ReadOnlySharedStringsTable strings)
+            throws IOException, SAXException, ParserConfigurationException {
+        long startTime = System.nanoTime();
+        XMLReader xmlReader = SAXHelper.newXMLReader();
+        xmlReader.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings, handler,
+                new DataFormatter(), false));
+        xmlReader.parse(new InputSource(sheetData));
+        handler.parseTime = System.nanoTime() - startTime;
+        return handler;
+    }
+
+    /**
+     * Gets the time taken by each phase of the last read.
+     * @return the timings of parsing each sheet and adding the rows to the bank
+     */
+    public PhaseTimer getTimer() {
+        return timer;
+    }
+
+    /**
+     * Collects the cells of each row of a sheet, to be added to the bank once all sheets are parsed.
+     */
+    private static class RowHandler implements SheetContentsHandler {
+        private int sheet;
+        private ArrayList<String> cells;
+        private ArrayList<ArrayList<String>> rows;
+        private ArrayList<Integer> rowNumbers;
+        private long parseTime;
+
+        RowHandler(int sheet) {
+            this.sheet = sheet;
+            this.cells = new ArrayList<>();
+            this.rows = new ArrayList<>();
+            this.rowNumbers = new ArrayList<>();
+        }
+
+        @Override
+        public void startRow(int rowNumber) {
+            cells = new ArrayList<>();
+        }
+
+        @Override
+        public void endRow(int rowNumber) {
+            if (rowNumber == 0 || cells.isEmpty() || cells.get(0) == null) {
+                return;
+            }
+            rows.add(cells);
+            rowNumbers.add(rowNumber);
+        }
+
+        /**
+         * Adds the rows of the sheet to the bank, in the order they were read.
+         */
+        void addRowsTo(Bank bank) {
+            for (int i = 0; i < rows.size(); i++) {
+                ArrayList<String> row = rows.get(i);
+                switch (sheet) {
+                case WORD_BANK_SHEET:
+                    addWord(bank, row, rowNumbers.get(i));
+                    break;
+                case TAG_BANK_SHEET:
+                    if (row.size() > 1 && row.get(1) != null) {
+                        for (String word : row.get(1).split(", ")) {
+                            if (isKnownWord(bank, word, rowNumbers.get(i))) {
+                                bank.addTagToWord(word, row.get(0));
+                            }
+                        }
+                    }
+                    break;
+                default:
+                    addSynonyms(bank, row.get(0).split(", "), rowNumbers.get(i));
+                    break;
+                }
+            }
+        }
+
+        private void addWord(Bank bank, ArrayList<String> row, int rowNumber) {
+            Word word = new Word(row.get(0), row.size() > 1 ? row.get(1) : "");
+            if (row.size() > 2) {
+                word.addExample(row.get(2));
+            }
+            try {
+                bank.addWord(word);
+            } catch (WordAlreadyExistsException e) {
+                LOGGER.warning("Skipped excel row " + (rowNumber + 1) + ": " + e.showError());
+            }
+        }
+
+        /**
+         * Checks if a word named by a tag row is in the bank, since its row in the WordBank sheet may have been
+         * deleted by hand while the tag row still names it.
+         */
+        private boolean isKnownWord(Bank bank, String word, int rowNumber) {
+            if (bank.getWordBankObject().contains(word)) {
+                return true;
+            }
+            LOGGER.warning("Skipped " + word + " in excel row " + (rowNumber + 1) + ": the word is not in the bank");
+            return false;
+        }
+
+        /**
+         * Joins the words of a synonym row, which need at least one word of the bank to be synonyms of,
+         * like synonyms added by a command.
+         */
+        private void addSynonyms(Bank bank, String[] allWords, int rowNumber) {
+            for (String knownWord : allWords) {
+                if (bank.getWordBankObject().contains(knownWord)) {
+                    for (String word : allWords) {
+                        bank.addSynonymToWord(word, knownWord);
+                    }
+                    return;
+                }
+            }
+            LOGGER.warning("Skipped excel row " + (rowNumber + 1) + ": none of its words are in the bank");
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? cells.size() : new CellReference(cellReference).getCol();
+            while (cells.size() <= column) {
+                cells.add(null);
+            }
+            cells.set(column, formattedValue);
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+        }
+    }
+}
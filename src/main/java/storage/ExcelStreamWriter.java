@@ -0,0 +1,262 @@
+package storage;
+
+import dictionary.Bank;
+import dictionary.Word;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes the whole bank to the excel file through a streaming SXSSF workbook.
+ * Only a small window of rows is kept in memory, older rows are flushed to a temporary file,
+ * so the memory needed does not grow with the size of the word bank.
+ */
+public class ExcelStreamWriter {
+
+    /**
+     * Number of rows kept in memory for each sheet before they are flushed to disk.
+     */
+    private static final int ROW_WINDOW_SIZE = 100;
+
+    /**
+     * Widest column allowed by excel, in characters.
+     */
+    private static final int MAX_COLUMN_CHARACTERS = 255;
+
+    /**
+     * Last modified time and length of each excel file right after it was written, by its absolute path,
+     * so that the file watcher can tell exports apart from edits made in a spreadsheet program.
+     */
+    private static final ConcurrentHashMap<String, String> LAST_WRITTEN = new ConcurrentHashMap<>();
+
+    private String excelPath;
+    private CellStyle headerCellStyle;
+
+    public ExcelStreamWriter(String excelPath) {
+        this.excelPath = excelPath;
+    }
+
+    /**
+     * Writes the WordBank, TagBank and SynonymBank sheets of the bank to the excel file.
+     * Column widths are approximated from the longest value written instead of autosizing.
+     * The workbook is written to a temporary file that is then moved over the excel file,
+     * so that a failed write leaves the last complete excel file in place.
+     * @param bank represents the data bank
+     * @throws IOException if the excel file cannot be written
+     */
+    public void write(Bank bank) throws IOException {
+        SXSSFWorkbook workbook = createWorkbook();
+        try {
+            writeWordBankSheet(workbook.createSheet("WordBank"), bank.getWordBankObject().getAllWordsAsList());
+            writeTagBankSheet(workbook.createSheet("TagBank"), bank);
+            writeSynonymBankSheet(workbook.createSheet("SynonymBank"),
+                    bank.getSynonymBank().getAllSynonymsAsList());
+            save(workbook);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Writes the WordBank, TagBank and SynonymBank sheets straight from the arrays of a snapshot,
+     * without rebuilding a bank from it.
+     * @param snapshot copy of the bank to be written
+     * @throws IOException if the excel file cannot be written
+     */
+    public void write(BankSnapshot snapshot) throws IOException {
+        SXSSFWorkbook workbook = createWorkbook();
+        try {
+            writeWordBankSheet(workbook.createSheet("WordBank"), snapshot);
+            writeTagBankSheet(workbook.createSheet("TagBank"), snapshot);
+            writeSynonymBankSheet(workbook.createSheet("SynonymBank"), groupSynonyms(snapshot));
+            save(workbook);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private SXSSFWorkbook createWorkbook() {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW_SIZE);
+        workbook.setCompressTempFiles(true);
+        headerCellStyle = createHeaderCellStyle(workbook);
+        return workbook;
+    }
+
+    /**
+     * Writes the workbook to a temporary file and moves it over the excel file.
+     */
+    private void save(SXSSFWorkbook workbook) throws IOException {
+        File file = new File(excelPath).getAbsoluteFile();
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile)) {
+            workbook.write(fileOut);
+            fileOut.getFD().sync();
+        }
+        // The move keeps the last modified time, so the version is known before the watcher can see the file.
+        LAST_WRITTEN.put(file.getPath(), versionOf(tempFile));
+        SnapshotFile.moveAtomically(tempFile, file);
+    }
+
+    /**
+     * Checks if an excel file is still as it was last written by WordUp.
+     * @param file the excel file
+     * @return true if the file has not been changed since it was last written by WordUp
+     */
+    static boolean isLastWritten(File file) {
+        File absoluteFile = file.getAbsoluteFile();
+        return versionOf(absoluteFile).equals(LAST_WRITTEN.get(absoluteFile.getPath()));
+    }
+
+    private static String versionOf(File file) {
+        return file.lastModified() + ":" + file.length();
+    }
+
+    private CellStyle createHeaderCellStyle(SXSSFWorkbook workbook) {
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        headerFont.setFontHeightInPoints((short) 12);
+        headerFont.setColor(IndexedColors.RED.getIndex());
+
+        CellStyle cellStyle = workbook.createCellStyle();
+        cellStyle.setFont(headerFont);
+        cellStyle.setAlignment(HorizontalAlignment.CENTER);
+        return cellStyle;
+    }
+
+    private void writeWordBankSheet(Sheet sheet, Word[] allWords) {
+        int[] columnWidths = writeHeaderRow(sheet, "Word", "Meaning", "Example");
+        for (int i = 0; i < allWords.length; i++) {
+            writeWordRow(sheet.createRow(i + 1), allWords[i].getWordString(), allWords[i].getMeaning(),
+                    allWords[i].getExample(), columnWidths);
+        }
+        setColumnWidths(sheet, columnWidths);
+    }
+
+    private void writeWordBankSheet(Sheet sheet, BankSnapshot snapshot) {
+        int[] columnWidths = writeHeaderRow(sheet, "Word", "Meaning", "Example");
+        String[] words = snapshot.getWords();
+        for (int i = 0; i < words.length; i++) {
+            writeWordRow(sheet.createRow(i + 1), words[i], snapshot.getMeaning(i), snapshot.getExample(i),
+                    columnWidths);
+        }
+        setColumnWidths(sheet, columnWidths);
+    }
+
+    private void writeWordRow(Row row, String word, String meaning, String example, int[] columnWidths) {
+        writeCell(row, 0, word, columnWidths);
+        writeCell(row, 1, meaning, columnWidths);
+        if (example != null) {
+            writeCell(row, 2, example, columnWidths);
+        }
+    }
+
+    private void writeTagBankSheet(Sheet sheet, Bank bank) {
+        int[] columnWidths = writeHeaderRow(sheet, "Tag", "Words");
+        String[] allTags = bank.getAllTags();
+        for (int i = 0; i < allTags.length; i++) {
+            Row row = sheet.createRow(i + 1);
+            writeCell(row, 0, allTags[i], columnWidths);
+            writeCell(row, 1, String.join(", ", bank.getTagBank().getAllWordsOfTag(allTags[i])), columnWidths);
+        }
+        setColumnWidths(sheet, columnWidths);
+    }
+
+    /**
+     * Writes one row for each tag of the snapshot, in the order of its tag table, with the words of the tag.
+     */
+    private void writeTagBankSheet(Sheet sheet, BankSnapshot snapshot) {
+        String[] tagNames = snapshot.getTagNames();
+        ArrayList<ArrayList<String>> wordsOfTags = new ArrayList<>(tagNames.length);
+        for (int i = 0; i < tagNames.length; i++) {
+            wordsOfTags.add(new ArrayList<>());
+        }
+        String[] words = snapshot.getWords();
+        int[][] tagIds = snapshot.getTagIds();
+        for (int i = 0; i < words.length; i++) {
+            for (int tagId : tagIds[i]) {
+                wordsOfTags.get(tagId).add(words[i]);
+            }
+        }
+        int[] columnWidths = writeHeaderRow(sheet, "Tag", "Words");
+        for (int i = 0; i < tagNames.length; i++) {
+            Row row = sheet.createRow(i + 1);
+            writeCell(row, 0, tagNames[i], columnWidths);
+            writeCell(row, 1, String.join(", ", wordsOfTags.get(i)), columnWidths);
+        }
+        setColumnWidths(sheet, columnWidths);
+    }
+
+    /**
+     * Groups the synonym words of a snapshot by their root word, the root first.
+     */
+    private static ArrayList<ArrayList<String>> groupSynonyms(BankSnapshot snapshot) {
+        String[] synonymWords = snapshot.getSynonymWords();
+        int[] synonymRoots = snapshot.getSynonymRoots();
+        LinkedHashMap<Integer, ArrayList<String>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < synonymWords.length; i++) {
+            if (synonymRoots[i] == i) {
+                groups.computeIfAbsent(i, root -> new ArrayList<>()).add(0, synonymWords[i]);
+            } else {
+                groups.computeIfAbsent(synonymRoots[i], root -> new ArrayList<>()).add(synonymWords[i]);
+            }
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private void writeSynonymBankSheet(Sheet sheet, ArrayList<ArrayList<String>> allSynonyms) {
+        int[] columnWidths = writeHeaderRow(sheet, "Word with same meaning");
+        for (int i = 0; i < allSynonyms.size(); i++) {
+            Row row = sheet.createRow(i + 1);
+            writeCell(row, 0, String.join(", ", allSynonyms.get(i)), columnWidths);
+        }
+        setColumnWidths(sheet, columnWidths);
+    }
+
+    /**
+     * Writes the header row of a sheet.
+     * @param sheet sheet to be written
+     * @param headers titles of the columns
+     * @return widths of the columns so far, in characters
+     */
+    private int[] writeHeaderRow(Sheet sheet, String... headers) {
+        int[] columnWidths = new int[headers.length];
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            writeCell(headerRow, i, headers[i], columnWidths).setCellStyle(headerCellStyle);
+        }
+        return columnWidths;
+    }
+
+    private Cell writeCell(Row row, int column, String value, int[] columnWidths) {
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        if (value != null && value.length() > columnWidths[column]) {
+            columnWidths[column] = value.length();
+        }
+        return cell;
+    }
+
+    /**
+     * Approximates autosizing with the longest value of each column, plus some padding.
+     */
+    private void setColumnWidths(Sheet sheet, int[] columnWidths) {
+        for (int i = 0; i < columnWidths.length; i++) {
+            int characters = Math.min(columnWidths[i] + 2, MAX_COLUMN_CHARACTERS);
+            sheet.setColumnWidth(i, characters * 256);
+        }
+    }
+}
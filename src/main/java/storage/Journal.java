@@ -0,0 +1,149 @@
+package storage;
+
+import dictionary.Bank;
+import dictionary.BankOperation;
+import exception.WordUpException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Represents the append-only journal of operations made on the bank since the last snapshot.
+ * Each record holds a sequence number and one operation, and is checked with a CRC32 so that
+ * a record torn by a crash is detected and dropped when the journal is replayed.
+ * While a snapshot is being written, the journal is rotated so that new operations go to a fresh file.
+ */
+public class Journal {
+    private static final Logger LOGGER = Logger.getLogger(Journal.class.getName());
+
+    private File file;
+    private File rotatedFile;
+    private long nextSequence;
+    private int operationCount;
+
+    /**
+     * Creates the journal stored in a file.
+     * @param file the journal file, which is created when the first operation is appended
+     */
+    public Journal(File file) {
+        this.file = file;
+        this.rotatedFile = new File(file.getPath() + ".old");
+        this.nextSequence = 1;
+        this.operationCount = 0;
+    }
+
+    public long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    /**
+     * Gets the number of operations appended since the journal was last rotated.
+     * @return number of operations in the journal file
+     */
+    public int getOperationCount() {
+        return operationCount;
+    }
+
+    /**
+     * Applies all operations written after a snapshot to a bank loaded from that snapshot.
+     * @param bank bank loaded from the snapshot
+     * @param snapshotSequence sequence number of the last operation included in the snapshot
+     * @throws IOException if the journal cannot be read
+     */
+    public void replay(Bank bank, long snapshotSequence) throws IOException {
+        nextSequence = Math.max(nextSequence, snapshotSequence + 1);
+        replayFile(rotatedFile, bank, snapshotSequence);
+        operationCount = replayFile(file, bank, snapshotSequence);
+    }
+
+    private int replayFile(File journalFile, Bank bank, long snapshotSequence) throws IOException {
+        return ChecksummedRecords.readAll(journalFile, record -> {
+            long sequence = record.readLong();
+            BankOperation operation = new BankOperation(BankOperation.Type.values()[record.readByte()],
+                    SnapshotFile.readString(record), SnapshotFile.readString(record));
+            if (sequence <= snapshotSequence) {
+                return;
+            }
+            nextSequence = Math.max(nextSequence, sequence + 1);
+            try {
+                bank.applyOperation(operation);
+            } catch (WordUpException e) {
+                LOGGER.warning("Skipped journal operation " + operation + ": " + e.showError());
+            }
+        });
+    }
+
+    /**
+     * Appends operations to the journal with one sequential write, and waits until they reach the disk.
+     * @param operations operations in the order they were made
+     * @throws IOException if the journal cannot be written
+     */
+    public void append(List<BankOperation> operations) throws IOException {
+        if (operations.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        ByteArrayOutputStream payloadBuffer = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBuffer);
+        long sequence = nextSequence;
+        for (BankOperation operation : operations) {
+            payloadBuffer.reset();
+            payload.writeLong(sequence++);
+            payload.writeByte(operation.getType().ordinal());
+            SnapshotFile.writeString(payload, operation.getWord());
+            SnapshotFile.writeString(payload, operation.getValue());
+            ChecksummedRecords.write(out, payloadBuffer.toByteArray());
+        }
+        try (FileOutputStream fileOut = new FileOutputStream(file, true)) {
+            buffer.writeTo(fileOut);
+            fileOut.getChannel().force(false);
+        }
+        nextSequence = sequence;
+        operationCount += operations.size();
+    }
+
+    /**
+     * Moves the journal aside before its operations are folded into a snapshot.
+     * If an earlier rotated journal was left behind, the journal is added to its end instead,
+     * and the copy reaches the disk before the journal is deleted.
+     * @throws IOException if the journal cannot be moved
+     */
+    public void rotate() throws IOException {
+        if (!file.exists()) {
+            operationCount = 0;
+            return;
+        }
+        if (rotatedFile.exists()) {
+            try (FileChannel source = new FileInputStream(file).getChannel();
+                 FileChannel target = new FileOutputStream(rotatedFile, true).getChannel()) {
+                long size = source.size();
+                long copied = 0;
+                while (copied < size) {
+                    copied += source.transferTo(copied, size - copied, target);
+                }
+                target.force(false);
+            }
+            if (!file.delete()) {
+                throw new IOException("Unable to delete " + file.getAbsolutePath());
+            }
+        } else {
+            SnapshotFile.moveAtomically(file, rotatedFile);
+        }
+        operationCount = 0;
+    }
+
+    /**
+     * Deletes the rotated journal, once a snapshot including all its operations is written.
+     */
+    public void deleteRotated() {
+        rotatedFile.delete();
+    }
+}
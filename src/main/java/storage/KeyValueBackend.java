@@ -0,0 +1,322 @@
+package storage;
+
+import dictionary.Bank;
+import dictionary.Word;
+import exception.ReminderWrongDateFormatException;
+import exception.WordAlreadyExistsException;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import parser.Parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the bank and the reminders in an embedded MVStore file, where every word, tag, synonym and search count
+ * is its own entry of a B-tree map, so that each change is a point update whose cost grows as log n.
+ * Changes are only written when committed, and a commit is written to the file as a whole or not at all.
+ * Tags and synonyms are keyed by the word and the tag or synonym, joined by a separator that words cannot hold.
+ * Reminders are keyed by their due time followed by their text, so they are kept ordered by due time.
+ * On first use the store is filled from the excel file and the reminder text file.
+ */
+public class KeyValueBackend implements StorageBackend {
+    private static final Logger LOGGER = Logger.getLogger(KeyValueBackend.class.getName());
+
+    private static final char SEPARATOR = '\u0000';
+    private static final String IMPORTED = "imported";
+
+    /**
+     * Name of the map that held the reminders keyed by their text alone, before they were keyed by due time.
+     */
+    private static final String REMINDERS_BY_TEXT = "reminders";
+
+    private static final HashMap<String, KeyValueBackend> OPEN_STORES = new HashMap<>();
+
+    private MVStore store;
+    private MVMap<String, String> meanings;
+    private MVMap<String, String> examples;
+    private MVMap<String, String> tags;
+    private MVMap<String, String> synonyms;
+    private MVMap<String, Integer> searchCounts;
+    private MVMap<String, Integer> reminders;
+    private MVMap<String, String> meta;
+    private File excelFile;
+    private File reminderFile;
+
+    private KeyValueBackend(File storeFile, File excelFile, File reminderFile) {
+        this.store = new MVStore.Builder().fileName(storeFile.getAbsolutePath()).autoCommitDisabled().open();
+        this.meanings = store.openMap("meanings");
+        this.examples = store.openMap("examples");
+        this.tags = store.openMap("tags");
+        this.synonyms = store.openMap("synonyms");
+        this.searchCounts = store.openMap("searchCounts");
+        this.reminders = store.openMap("remindersByDueTime");
+        this.meta = store.openMap("meta");
+        this.excelFile = excelFile;
+        this.reminderFile = reminderFile;
+        if (store.hasMap(REMINDERS_BY_TEXT)) {
+            moveRemindersByText();
+        }
+    }
+
+    /**
+     * Moves the reminders of a store written before they were keyed by due time into the map keyed by due time.
+     * The move is written with the next commit.
+     */
+    private void moveRemindersByText() {
+        MVMap<String, Integer> remindersByText = store.openMap(REMINDERS_BY_TEXT);
+        for (Map.Entry<String, Integer> entry : remindersByText.entrySet()) {
+            reminders.put(reminderKey(entry.getKey()), entry.getValue());
+        }
+        store.removeMap(remindersByText);
+    }
+
+    /**
+     * Gets the backend of a store file, opening the file if it is not open yet.
+     * The store file is locked while it is open, so all storages of the same file share one backend.
+     * @param storeFile the store file, which is created if it does not exist
+     * @param excelFile the excel file imported on first use
+     * @param reminderFile the reminder text file imported on first use
+     * @return the backend of the store file
+     */
+    public static synchronized KeyValueBackend open(File storeFile, File excelFile, File reminderFile) {
+        return OPEN_STORES.computeIfAbsent(storeFile.getAbsolutePath(),
+                path -> new KeyValueBackend(storeFile, excelFile, reminderFile));
+    }
+
+    /**
+     * Reads every word with its tags, example and search count, and then every pair of synonyms.
+     * @return the bank that was saved
+     */
+    @Override
+    public synchronized Bank load() throws IOException {
+        if (!meta.containsKey(IMPORTED)) {
+            importFiles();
+        }
+        HashMap<String, HashSet<String>> tagsOfWords = new HashMap<>();
+        for (String key : tags.keySet()) {
+            int separator = key.indexOf(SEPARATOR);
+            tagsOfWords.computeIfAbsent(key.substring(0, separator), word -> new HashSet<>())
+                    .add(key.substring(separator + 1));
+        }
+        Bank bank = new Bank();
+        try {
+            for (Map.Entry<String, String> entry : meanings.entrySet()) {
+                String description = entry.getKey();
+                HashSet<String> tagsOfWord = tagsOfWords.get(description);
+                Word word = new Word(description, entry.getValue(), tagsOfWord == null ? new HashSet<>() : tagsOfWord);
+                word.addExample(examples.get(description));
+                word.setNumberOfSearches(searchCounts.getOrDefault(description, 0));
+                bank.loadWord(word);
+            }
+        } catch (WordAlreadyExistsException e) {
+            e.printStackTrace();
+        }
+        for (String key : synonyms.keySet()) {
+            int separator = key.indexOf(SEPARATOR);
+            bank.loadSynonym(key.substring(0, separator), key.substring(separator + 1));
+        }
+        return bank;
+    }
+
+    /**
+     * Fills the store from the excel file and the reminder text file, and commits it.
+     */
+    private void importFiles() throws IOException {
+        Bank bank = new Bank();
+        if (excelFile.exists()) {
+            new ExcelStreamReader(excelFile).read(bank);
+        }
+        for (Word word : bank.getWordBankObject().getAllWordsAsList()) {
+            String description = word.getWordString();
+            meanings.put(description, word.getMeaning());
+            if (word.getExample() != null) {
+                examples.put(description, word.getExample());
+            }
+            for (String tag : word.getTags()) {
+                tags.put(key(description, tag), tag);
+            }
+        }
+        for (Map.Entry<String, String> entry : bank.getSynonymBank().getAllRoots().entrySet()) {
+            if (!entry.getKey().equals(entry.getValue())) {
+                synonyms.put(key(entry.getKey(), entry.getValue()), entry.getValue());
+            }
+        }
+        if (reminderFile.exists()) {
+            for (String reminder : RecordFile.open(reminderFile).readAll()) {
+                addReminder(reminder);
+            }
+        }
+        meta.put(IMPORTED, excelFile.getName());
+        commit();
+    }
+
+    @Override
+    public synchronized void upsertWord(String word, String meaning) {
+        meanings.put(word, meaning);
+    }
+
+    /**
+     * Deletes a word and every tag of it, found by walking the tag keys that start with the word.
+     */
+    @Override
+    public synchronized void deleteWord(String word) {
+        meanings.remove(word);
+        examples.remove(word);
+        searchCounts.remove(word);
+        String prefix = word + SEPARATOR;
+        ArrayList<String> tagKeys = new ArrayList<>();
+        Iterator<String> keys = tags.keyIterator(prefix);
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if (!key.startsWith(prefix)) {
+                break;
+            }
+            tagKeys.add(key);
+        }
+        for (String key : tagKeys) {
+            tags.remove(key);
+        }
+    }
+
+    @Override
+    public synchronized void setExample(String word, String example) {
+        if (example == null) {
+            examples.remove(word);
+        } else {
+            examples.put(word, example);
+        }
+    }
+
+    @Override
+    public synchronized void addTag(String word, String tag) {
+        tags.put(key(word, tag), tag);
+    }
+
+    @Override
+    public synchronized void removeTag(String word, String tag) {
+        tags.remove(key(word, tag));
+    }
+
+    @Override
+    public synchronized void addSynonym(String word, String synonym) {
+        synonyms.put(key(word, synonym), synonym);
+    }
+
+    @Override
+    public synchronized void saveSearchCounts(Map<String, Integer> counts) {
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() == 0) {
+                searchCounts.remove(entry.getKey());
+            } else {
+                searchCounts.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Loads the reminders ordered by due time, repeating a text as many times as it was added.
+     * The files are imported first if the reminders are loaded before the bank on first use.
+     */
+    @Override
+    public synchronized List<String> loadReminders() throws IOException {
+        if (!meta.containsKey(IMPORTED)) {
+            importFiles();
+        }
+        ArrayList<String> texts = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : reminders.entrySet()) {
+            String text = entry.getKey().substring(entry.getKey().indexOf(SEPARATOR) + 1);
+            for (int i = 0; i < entry.getValue(); i++) {
+                texts.add(text);
+            }
+        }
+        return texts;
+    }
+
+    @Override
+    public synchronized void addReminder(String reminder) {
+        String key = reminderKey(reminder);
+        reminders.put(key, reminders.getOrDefault(key, 0) + 1);
+    }
+
+    @Override
+    public synchronized void removeReminder(String reminder) {
+        String key = reminderKey(reminder);
+        int count = reminders.getOrDefault(key, 0);
+        if (count > 1) {
+            reminders.put(key, count - 1);
+        } else {
+            reminders.remove(key);
+        }
+    }
+
+    /**
+     * Gets the key of a reminder, which starts with its due time written in a fixed number of digits,
+     * so that the keys sort by due time. A reminder whose date cannot be read sorts first.
+     */
+    private static String reminderKey(String reminder) {
+        long dueTime = 0;
+        try {
+            dueTime = Math.max(0, Parser.parseDate(reminder.split(" \\| ")[0]).getTime());
+        } catch (ReminderWrongDateFormatException e) {
+            LOGGER.warning("Reminder without a due time: " + reminder);
+        }
+        return key(String.format("%019d", dueTime), reminder);
+    }
+
+    /**
+     * Writes a new version of the store holding all changes since the last commit, and waits until it is on disk.
+     */
+    @Override
+    public synchronized void commit() throws IOException {
+        if (!store.hasUnsavedChanges()) {
+            return;
+        }
+        try {
+            store.commit();
+            store.sync();
+        } catch (IllegalStateException e) {
+            throw new IOException("Unable to write the store", e);
+        }
+    }
+
+    /**
+     * Commits the store and closes its file, so that it can be opened again.
+     */
+    public void close() {
+        synchronized (KeyValueBackend.class) {
+            synchronized (this) {
+                store.close();
+                OPEN_STORES.values().remove(this);
+            }
+        }
+    }
+
+    @Override
+    public int getOperationCount() {
+        return 0;
+    }
+
+    /**
+     * Never asks for a snapshot, since every change is already written in place.
+     */
+    @Override
+    public boolean needsSnapshot(int operationCount) {
+        return false;
+    }
+
+    @Override
+    public void writeSnapshot(BankSnapshot snapshot, boolean hasChangedRows) {
+    }
+
+    private static String key(String word, String value) {
+        return word + SEPARATOR + value;
+    }
+}
@@ -0,0 +1,98 @@
+package storage;
+
+import dictionary.WordText;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads the meanings and examples of words from a memory-mapped snapshot file when they are asked for.
+ * The offset of a word is the position of its meaning, which is followed by its example.
+ * In a compressed snapshot, the offset is in the uncompressed data, and the block holding it is inflated to read it.
+ * The texts read last are kept in a small cache, evicting the one used least recently.
+ */
+public class MappedWordText implements WordText {
+    private ByteBuffer buffer;
+    private BlockReader blocks;
+    private LinkedHashMap<Integer, String[]> cache;
+
+    /**
+     * Creates the text of a mapped snapshot file.
+     * @param buffer the mapped file, which must not be changed while any word refers to it
+     * @param cacheSize number of words whose meaning and example are kept in memory
+     */
+    public MappedWordText(ByteBuffer buffer, int cacheSize) {
+        this(cacheSize);
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates the text of a mapped snapshot file written in compressed blocks.
+     * @param blocks the blocks of the mapped file, which must not be changed while any word refers to it
+     * @param cacheSize number of words whose meaning and example are kept in memory
+     */
+    public MappedWordText(BlockReader blocks, int cacheSize) {
+        this(cacheSize);
+        this.blocks = blocks;
+    }
+
+    private MappedWordText(int cacheSize) {
+        this.cache = new LinkedHashMap<Integer, String[]>(cacheSize * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public String getMeaning(int offset) {
+        return read(offset)[0];
+    }
+
+    @Override
+    public String getExample(int offset) {
+        return read(offset)[1];
+    }
+
+    private synchronized String[] read(int offset) {
+        String[] text = cache.get(offset);
+        if (text == null) {
+            ByteBuffer view;
+            if (blocks == null) {
+                view = buffer.duplicate();
+                view.position(offset);
+            } else {
+                view = blocks.bufferAt(offset);
+            }
+            text = new String[] {decode(view), decode(view)};
+            cache.put(offset, text);
+        }
+        return text;
+    }
+
+    private String decode(ByteBuffer view) {
+        int length = view.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Skips the meaning and example of a word in a snapshot being read.
+     * @param buffer the mapped file, positioned at the meaning of a word
+     */
+    static void skip(ByteBuffer buffer) {
+        for (int i = 0; i < 2; i++) {
+            int length = buffer.getInt();
+            if (length > 0) {
+                buffer.position(buffer.position() + length);
+            }
+        }
+    }
+}
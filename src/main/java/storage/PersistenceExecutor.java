@@ -0,0 +1,224 @@
+package storage;
+
+import dictionary.BankOperation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Writes the changes and snapshots of a storage to its backend, and the reminders, on a background thread,
+ * and appends to the history file on another, so that commands run on the JavaFX thread never wait for the disk.
+ * Operations handed over while an earlier write is still running, such as several tags typed quickly,
+ * are coalesced into one commit of the backend.
+ */
+public class PersistenceExecutor {
+
+    /**
+     * One background thread shared by all storages, so that files are always written in the order they were asked.
+     */
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wordup-persistence");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Thread appending to the history file, apart from the backend, so that reading the history only waits for the
+     * records queued before it, and never for a commit or a snapshot of the bank.
+     */
+    private static final ExecutorService HISTORY_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wordup-history");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private StorageBackend backend;
+    private ArrayList<BankOperation> pendingOperations;
+    private ArrayList<Runnable> pendingFileWrites;
+    private HashMap<String, Integer> pendingSearchCounts;
+    private BankSnapshot pendingSnapshot;
+    private int pendingSnapshotIndex;
+    private boolean pendingHasChangedRows;
+    private boolean isWriteScheduled;
+
+    /**
+     * Creates the executor writing to the backend of a storage.
+     * @param backend backend the operations and snapshots are written to
+     */
+    public PersistenceExecutor(StorageBackend backend) {
+        this.backend = backend;
+        this.pendingOperations = new ArrayList<>();
+        this.pendingFileWrites = new ArrayList<>();
+        this.pendingSearchCounts = new HashMap<>();
+    }
+
+    /**
+     * Queues operations to be committed to the backend with the next write,
+     * together with the writes of the reminders made by the same command.
+     * @param operations operations in the order they were made
+     * @param fileWrites writes of the reminders, or null if there are none
+     */
+    public synchronized void submit(List<BankOperation> operations, Runnable fileWrites) {
+        pendingOperations.addAll(operations);
+        if (fileWrites != null) {
+            pendingFileWrites.add(fileWrites);
+        }
+        scheduleWrite();
+    }
+
+    /**
+     * Queues a batch of search counts to be committed with the next write, merged with any batch still queued.
+     * @param searchCounts map from each word to its new search count
+     */
+    public synchronized void submitSearchCounts(Map<String, Integer> searchCounts) {
+        pendingSearchCounts.putAll(searchCounts);
+        scheduleWrite();
+    }
+
+    /**
+     * Queues a snapshot of the bank, which includes all operations submitted before it.
+     * The operations submitted before it are committed first, so that the backend can drop them once it is written.
+     * @param snapshot copy of the bank to be written
+     * @param hasChangedRows true if any word, tag or synonym changed since the bank was last exported
+     * @return false if an earlier snapshot is still waiting to be written, in which case this one is dropped
+     */
+    public synchronized boolean submitSnapshot(BankSnapshot snapshot, boolean hasChangedRows) {
+        if (pendingSnapshot != null) {
+            return false;
+        }
+        pendingSnapshot = snapshot;
+        pendingSnapshotIndex = pendingOperations.size();
+        pendingHasChangedRows = hasChangedRows;
+        scheduleWrite();
+        return true;
+    }
+
+    /**
+     * Queues writes of the history file, made in the order they were queued.
+     * @param historyWrites writes of the history file
+     */
+    public void submitHistoryWrites(Runnable historyWrites) {
+        HISTORY_EXECUTOR.execute(historyWrites);
+    }
+
+    /**
+     * Waits until everything queued so far, by any storage, is written to the disk.
+     */
+    public void flush() {
+        waitFor(EXECUTOR);
+        waitFor(HISTORY_EXECUTOR);
+    }
+
+    /**
+     * Waits until the writes of the history file queued so far are made, without waiting for the backend.
+     */
+    public void flushHistory() {
+        waitFor(HISTORY_EXECUTOR);
+    }
+
+    private static void waitFor(ExecutorService executor) {
+        try {
+            executor.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void scheduleWrite() {
+        if (!isWriteScheduled) {
+            isWriteScheduled = true;
+            EXECUTOR.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Commits all queued operations to the backend, writes the queued snapshot, if any,
+     * and then makes the queued writes of the reminders,
+     * which are committed together with the operations after the snapshot.
+     */
+    private void writePending() {
+        ArrayList<BankOperation> operations;
+        ArrayList<Runnable> fileWrites;
+        HashMap<String, Integer> searchCounts;
+        BankSnapshot snapshot;
+        int snapshotIndex;
+        boolean hasChangedRows;
+        synchronized (this) {
+            operations = pendingOperations;
+            snapshot = pendingSnapshot;
+            snapshotIndex = pendingSnapshotIndex;
+            hasChangedRows = pendingHasChangedRows;
+            fileWrites = pendingFileWrites;
+            searchCounts = pendingSearchCounts;
+            pendingOperations = new ArrayList<>();
+            pendingFileWrites = new ArrayList<>();
+            pendingSearchCounts = new HashMap<>();
+            pendingSnapshot = null;
+            isWriteScheduled = false;
+        }
+        try {
+            if (snapshot == null) {
+                apply(operations);
+            } else {
+                apply(operations.subList(0, snapshotIndex));
+                backend.commit();
+                backend.writeSnapshot(snapshot, hasChangedRows);
+                apply(operations.subList(snapshotIndex, operations.size()));
+            }
+            if (!searchCounts.isEmpty()) {
+                backend.saveSearchCounts(searchCounts);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        for (Runnable fileWrite : fileWrites) {
+            fileWrite.run();
+        }
+        try {
+            backend.commit();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Hands operations to the backend in the order they were made.
+     * Searches are not among them, since their counts are handed over in batches.
+     */
+    private void apply(List<BankOperation> operations) throws IOException {
+        for (BankOperation operation : operations) {
+            String word = operation.getWord();
+            switch (operation.getType()) {
+            case ADD:
+            case EDIT:
+                backend.upsertWord(word, operation.getValue());
+                break;
+            case DELETE:
+                backend.deleteWord(word);
+                break;
+            case EXAMPLE:
+                backend.setExample(word, operation.getValue());
+                break;
+            case TAG:
+                backend.addTag(word, operation.getValue());
+                break;
+            case UNTAG:
+                backend.removeTag(word, operation.getValue());
+                break;
+            case SYNONYM:
+                backend.addSynonym(word, operation.getValue());
+                break;
+            default:
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package storage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps how long each phase of loading took, in the order the phases are recorded, to be reported once it is done.
+ */
+public class PhaseTimer {
+    private LinkedHashMap<String, Long> nanoseconds;
+
+    public PhaseTimer() {
+        this.nanoseconds = new LinkedHashMap<>();
+    }
+
+    /**
+     * Records a phase that started at the given time and ends now.
+     * @param phase name of the phase
+     * @param startTime value of System.nanoTime when the phase started
+     */
+    public synchronized void record(String phase, long startTime) {
+        recordDuration(phase, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Records a phase that took the given time, such as one measured on another thread.
+     * @param phase name of the phase
+     * @param duration time taken by the phase in nanoseconds
+     */
+    public synchronized void recordDuration(String phase, long duration) {
+        nanoseconds.put(phase, duration);
+    }
+
+    /**
+     * Lists every phase with the milliseconds it took.
+     * @return a string such as "bank 120 ms, reminders 4 ms"
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Long> entry : nanoseconds.entrySet()) {
+            if (report.length() > 0) {
+                report.append(", ");
+            }
+            report.append(entry.getKey()).append(' ').append(entry.getValue() / 1000000).append(" ms");
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,447 @@
+package storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Represents a text file of records, such as the history and reminder files, where each line is one record.
+ * Records are never changed in place: an edit appends the new text of a record and a delete appends a tombstone,
+ * both referring to the record by the offset of the line that added it, so their cost does not depend on the size
+ * of the file, and the file can be read backwards from its end.
+ * An index of the offset of each record and of the records holding each text is kept in memory.
+ * Once most lines of the file are edits, tombstones or replaced records, the file is compacted.
+ */
+public class RecordFile {
+    private static final Logger LOGGER = Logger.getLogger(RecordFile.class.getName());
+
+    /**
+     * Marks a line that edits or deletes a record, or an added record whose text starts with the marker.
+     */
+    private static final char MARKER = '#';
+    private static final String EDIT = "#edit ";
+    private static final String DELETE = "#delete ";
+
+    /**
+     * Smallest number of dead lines in the file before it is compacted.
+     */
+    private static final int COMPACTION_LINES = 256;
+
+    /**
+     * Number of bytes read at a time when the file is read backwards.
+     */
+    private static final int BLOCK_SIZE = 8192;
+
+    private static final HashMap<String, RecordFile> OPEN_FILES = new HashMap<>();
+
+    private File file;
+    private long length;
+    private int lineCount;
+    private ArrayList<Long> offsets;
+    private ArrayList<Long> recordOffsets;
+    private HashMap<Long, Integer> recordsByOffset;
+    private HashMap<String, ArrayList<Integer>> recordsByText;
+    private int liveCount;
+
+    private RecordFile(File file) {
+        this.file = file;
+        this.length = -1;
+    }
+
+    /**
+     * Gets the record file stored at a path, shared by all storages using that path.
+     * @param file the text file
+     * @return the record file
+     */
+    public static RecordFile open(File file) {
+        synchronized (OPEN_FILES) {
+            return OPEN_FILES.computeIfAbsent(file.getAbsolutePath(), path -> new RecordFile(file));
+        }
+    }
+
+    /**
+     * Reads the text of all records that are not deleted, in the order they were added.
+     * @return the texts of the records
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized List<String> readAll() throws IOException {
+        ArrayList<String> texts = new ArrayList<>();
+        for (String text : scan()) {
+            if (text != null) {
+                texts.add(text);
+            }
+        }
+        return texts;
+    }
+
+    /**
+     * Reads the text of the record at an offset of the file.
+     * @param offset offset of the line holding the record
+     * @return the text of the record
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized String readAt(long offset) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            randomAccessFile.seek(offset);
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b = randomAccessFile.read();
+            while (b != -1 && b != '\n') {
+                line.write(b);
+                b = randomAccessFile.read();
+            }
+            return recordText(decode(line.toByteArray()));
+        }
+    }
+
+    /**
+     * Gets the offsets of the latest text of all records that are not deleted, in the order they were added.
+     * @return the offsets of the records
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized long[] getOffsets() throws IOException {
+        ensureIndexed();
+        long[] liveOffsets = new long[liveCount];
+        int i = 0;
+        for (long offset : offsets) {
+            if (offset >= 0) {
+                liveOffsets[i++] = offset;
+            }
+        }
+        return liveOffsets;
+    }
+
+    /**
+     * Reads the text of the last records that are not deleted, reading the file backwards from its end,
+     * so that the cost depends on the number of records read and not on the size of the file.
+     * @param count number of records to be read
+     * @return the texts of the records, the last added record first
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized List<String> readLast(int count) throws IOException {
+        ArrayList<String> texts = new ArrayList<>();
+        if (count <= 0 || !file.exists()) {
+            return texts;
+        }
+        HashSet<Long> deletedRecords = new HashSet<>();
+        HashMap<Long, String> editedTexts = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+            ByteArrayOutputStream reversedLine = new ByteArrayOutputStream();
+            long position = channel.size();
+            while (position > 0 && texts.size() < count) {
+                int blockLength = (int) Math.min(BLOCK_SIZE, position);
+                position -= blockLength;
+                block.clear().limit(blockLength);
+                while (block.hasRemaining()) {
+                    if (channel.read(block, position + block.position()) < 0) {
+                        throw new IOException("Unexpected end of " + file.getAbsolutePath());
+                    }
+                }
+                for (int i = blockLength - 1; i >= 0 && texts.size() < count; i--) {
+                    byte b = block.get(i);
+                    if (b == '\n') {
+                        readLineBackwards(reversedLine, position + i + 1, deletedRecords, editedTexts, texts);
+                    } else {
+                        reversedLine.write(b);
+                    }
+                }
+            }
+            if (position == 0 && texts.size() < count) {
+                readLineBackwards(reversedLine, 0, deletedRecords, editedTexts, texts);
+            }
+        }
+        return texts;
+    }
+
+    /**
+     * Handles a line met while reading the file backwards, where edits and tombstones are met
+     * before the line adding the record they refer to.
+     */
+    private void readLineBackwards(ByteArrayOutputStream reversedLine, long offset, HashSet<Long> deletedRecords,
+                                   HashMap<Long, String> editedTexts, ArrayList<String> texts) {
+        byte[] bytes = reversedLine.toByteArray();
+        reversedLine.reset();
+        for (int i = 0, j = bytes.length - 1; i < j; i++, j--) {
+            byte b = bytes[i];
+            bytes[i] = bytes[j];
+            bytes[j] = b;
+        }
+        String line = decode(bytes);
+        if (line.isEmpty()) {
+            return;
+        }
+        try {
+            if (line.startsWith(EDIT)) {
+                int separator = line.indexOf(' ', EDIT.length());
+                editedTexts.putIfAbsent(Long.parseLong(line.substring(EDIT.length(), separator)),
+                        line.substring(separator + 1));
+                return;
+            }
+            if (line.startsWith(DELETE)) {
+                deletedRecords.add(Long.parseLong(line.substring(DELETE.length())));
+                return;
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return;
+        }
+        if (!deletedRecords.contains(offset)) {
+            texts.add(editedTexts.getOrDefault(offset, recordText(line)));
+        }
+    }
+
+    /**
+     * Adds records at the end of the file with one write.
+     * @param texts texts of the records
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void append(List<String> texts) throws IOException {
+        ensureIndexed();
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (String text : texts) {
+            if (text.isEmpty()) {
+                continue;
+            }
+            addRecord(text, length + lines.size());
+            writeLine(lines, text.charAt(0) == MARKER ? MARKER + text : text);
+        }
+        appendLines(lines);
+    }
+
+    /**
+     * Replaces the text of every record holding a text, or deletes these records if the new text is empty.
+     * @param oldText text of the records to be replaced
+     * @param newText new text of the records
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void replace(String oldText, String newText) throws IOException {
+        ensureIndexed();
+        ArrayList<Integer> records = recordsByText.remove(oldText);
+        if (records == null) {
+            return;
+        }
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (int record : records) {
+            if (newText.isEmpty()) {
+                offsets.set(record, -1L);
+                liveCount--;
+                writeLine(lines, DELETE + recordOffsets.get(record));
+            } else {
+                offsets.set(record, length + lines.size());
+                recordsByText.computeIfAbsent(newText, text -> new ArrayList<>()).add(record);
+                writeLine(lines, EDIT + recordOffsets.get(record) + " " + newText);
+            }
+            lineCount++;
+        }
+        appendLines(lines);
+        if (lineCount - liveCount >= Math.max(COMPACTION_LINES, liveCount)) {
+            compact();
+        }
+    }
+
+    /**
+     * Deletes the first record holding a text, keeping other records with the same text.
+     * @param text text of the record to be deleted
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void deleteFirst(String text) throws IOException {
+        ensureIndexed();
+        ArrayList<Integer> records = recordsByText.get(text);
+        if (records == null) {
+            return;
+        }
+        int record = records.remove(0);
+        if (records.isEmpty()) {
+            recordsByText.remove(text);
+        }
+        offsets.set(record, -1L);
+        liveCount--;
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        writeLine(lines, DELETE + recordOffsets.get(record));
+        lineCount++;
+        appendLines(lines);
+        if (lineCount - liveCount >= Math.max(COMPACTION_LINES, liveCount)) {
+            compact();
+        }
+    }
+
+    /**
+     * Replaces the whole file with one record.
+     * @param text text of the record
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void overwrite(String text) throws IOException {
+        new FileOutputStream(file).close();
+        length = -1;
+        append(Collections.singletonList(text));
+    }
+
+    /**
+     * Rewrites the file with only the latest text of the records that are not deleted.
+     */
+    private void compact() throws IOException {
+        List<String> texts = readAll();
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+            for (String text : texts) {
+                writeLine(out, text.charAt(0) == MARKER ? MARKER + text : text);
+            }
+        }
+        SnapshotFile.moveAtomically(tempFile, file);
+        length = -1;
+        ensureIndexed();
+    }
+
+    private void appendLines(ByteArrayOutputStream lines) throws IOException {
+        if (lines.size() == 0) {
+            return;
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            lines.writeTo(out);
+        }
+        length += lines.size();
+    }
+
+    private void addRecord(String text, long offset) {
+        recordsByText.computeIfAbsent(text, key -> new ArrayList<>()).add(offsets.size());
+        recordsByOffset.put(offset, offsets.size());
+        recordOffsets.add(offset);
+        offsets.add(offset);
+        liveCount++;
+        lineCount++;
+    }
+
+    /**
+     * Rebuilds the index if the file was never read, or was changed or deleted by someone else.
+     */
+    private void ensureIndexed() throws IOException {
+        if (offsets == null || length != file.length()) {
+            scan();
+        }
+    }
+
+    /**
+     * Reads the file from the start and rebuilds the index.
+     * @return the latest text of every record, null for deleted records
+     */
+    private ArrayList<String> scan() throws IOException {
+        offsets = new ArrayList<>();
+        recordOffsets = new ArrayList<>();
+        recordsByOffset = new HashMap<>();
+        recordsByText = new HashMap<>();
+        liveCount = 0;
+        lineCount = 0;
+        length = 0;
+        ArrayList<String> texts = new ArrayList<>();
+        if (!file.exists()) {
+            return texts;
+        }
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long offset = 0;
+            int b = in.read();
+            while (b != -1) {
+                length++;
+                if (b == '\n') {
+                    readLine(decode(line.toByteArray()), offset, texts);
+                    line.reset();
+                    offset = length;
+                } else {
+                    line.write(b);
+                }
+                b = in.read();
+            }
+            readLine(decode(line.toByteArray()), offset, texts);
+        }
+        return texts;
+    }
+
+    private void readLine(String line, long offset, ArrayList<String> texts) {
+        if (line.isEmpty()) {
+            return;
+        }
+        try {
+            if (line.startsWith(EDIT)) {
+                int separator = line.indexOf(' ', EDIT.length());
+                Integer record = recordsByOffset.get(Long.parseLong(line.substring(EDIT.length(), separator)));
+                lineCount++;
+                if (record == null || texts.get(record) == null) {
+                    return;
+                }
+                removeText(texts.get(record), record);
+                String text = line.substring(separator + 1);
+                recordsByText.computeIfAbsent(text, key -> new ArrayList<>()).add(record);
+                texts.set(record, text);
+                offsets.set(record, offset);
+                return;
+            }
+            if (line.startsWith(DELETE)) {
+                Integer record = recordsByOffset.get(Long.parseLong(line.substring(DELETE.length())));
+                if (record != null && texts.get(record) != null) {
+                    removeText(texts.get(record), record);
+                    texts.set(record, null);
+                    offsets.set(record, -1L);
+                    liveCount--;
+                }
+                lineCount++;
+                return;
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            LOGGER.warning("Skipped damaged line of " + file.getName() + ": " + line);
+            lineCount++;
+            return;
+        }
+        String text = recordText(line);
+        addRecord(text, offset);
+        texts.add(text);
+    }
+
+    private void removeText(String text, Integer record) {
+        ArrayList<Integer> records = recordsByText.get(text);
+        if (records != null) {
+            records.remove(record);
+            if (records.isEmpty()) {
+                recordsByText.remove(text);
+            }
+        }
+    }
+
+    /**
+     * Gets the text of a record from its line, which starts with the keyword of an edit if it was edited.
+     */
+    private static String recordText(String line) {
+        if (line.startsWith(EDIT)) {
+            return line.substring(line.indexOf(' ', EDIT.length()) + 1);
+        }
+        return line.charAt(0) == MARKER ? line.substring(1) : line;
+    }
+
+    private static String decode(byte[] bytes) {
+        int end = bytes.length;
+        if (end > 0 && bytes[end - 1] == '\r') {
+            end--;
+        }
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write(System.lineSeparator().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,105 @@
+package storage;
+
+import dictionary.Bank;
+import dictionary.BankOperation;
+import exception.NoWordFoundException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the search counts changed by searches in memory, and hands them to the backend in batches,
+ * once enough searches were made or a few seconds after the first unsaved search,
+ * so that a search does not cost a write of its own.
+ */
+public class SearchCounter {
+
+    /**
+     * Number of searches collected before they are handed over.
+     */
+    private static final int FLUSH_SEARCHES = 64;
+
+    /**
+     * Longest time in seconds a search is kept in memory before it is handed over.
+     */
+    private static final int FLUSH_SECONDS = 10;
+
+    /**
+     * One timer thread shared by all counters, only used to hand counts over after FLUSH_SECONDS.
+     */
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wordup-search-counter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PersistenceExecutor persistence;
+    private HashMap<String, Integer> pendingCounts;
+    private int searchCount;
+    private boolean isFlushScheduled;
+
+    /**
+     * Creates the counter handing its batches to the background thread of a storage.
+     * @param persistence executor writing to the backend
+     */
+    public SearchCounter(PersistenceExecutor persistence) {
+        this.persistence = persistence;
+        this.pendingCounts = new HashMap<>();
+    }
+
+    /**
+     * Takes the searches out of the operations made on the bank, keeping the new count of each searched word.
+     * A deleted word has its count set to 0, and is handed over with the deletion so that a word added again
+     * with the same name never gets back the old count.
+     * @param bank bank the operations were made on
+     * @param operations operations in the order they were made
+     * @return the operations that are not searches
+     */
+    public synchronized List<BankOperation> collect(Bank bank, List<BankOperation> operations) {
+        ArrayList<BankOperation> otherOperations = new ArrayList<>();
+        boolean isSearched = false;
+        boolean isDeleted = false;
+        for (BankOperation operation : operations) {
+            if (operation.getType() == BankOperation.Type.SEARCH) {
+                try {
+                    pendingCounts.put(operation.getWord(),
+                            bank.getWordFromWordBank(operation.getWord()).getNumberOfSearches());
+                    searchCount++;
+                    isSearched = true;
+                } catch (NoWordFoundException e) {
+                    pendingCounts.put(operation.getWord(), 0);
+                }
+                continue;
+            }
+            if (operation.getType() == BankOperation.Type.DELETE) {
+                pendingCounts.put(operation.getWord(), 0);
+                isDeleted = true;
+            }
+            otherOperations.add(operation);
+        }
+        if (searchCount >= FLUSH_SEARCHES || isDeleted) {
+            flush();
+        } else if (isSearched && !isFlushScheduled) {
+            isFlushScheduled = true;
+            TIMER.schedule(this::flush, FLUSH_SECONDS, TimeUnit.SECONDS);
+        }
+        return otherOperations;
+    }
+
+    /**
+     * Hands all collected counts to the background thread.
+     */
+    public synchronized void flush() {
+        isFlushScheduled = false;
+        if (pendingCounts.isEmpty()) {
+            return;
+        }
+        persistence.submitSearchCounts(pendingCounts);
+        pendingCounts = new HashMap<>();
+        searchCount = 0;
+    }
+}
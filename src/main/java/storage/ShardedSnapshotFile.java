@@ -0,0 +1,264 @@
+package storage;
+
+import dictionary.Bank;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads and writes a snapshot split into shard files, so that a snapshot only rewrites the shards
+ * holding words changed since the last one.
+ * Words are partitioned by the hash of the word into a fixed number of shards, and the synonyms are kept
+ * in a shard of their own. Each shard is a snapshot file with its own tag table, so shards are read in parallel.
+ * A small manifest, written last, holds the journal sequence number that all shards are up to,
+ * and the generation of each shard file.
+ * A shard is rewritten into a new file of the next generation rather than over its old file, so that a shard
+ * file is never changed while its words read their meanings from its memory map.
+ * Since the journal replays the same result on shards written after the manifest, a crash between the two
+ * leaves a snapshot that still loads.
+ */
+public class ShardedSnapshotFile {
+    private static final int MAGIC = 0x57555348;
+    private static final int VERSION = 2;
+
+    /**
+     * Version of the manifest written before shard files had generations.
+     */
+    private static final int UNVERSIONED = 1;
+
+    /**
+     * Number of shards the words are partitioned into.
+     */
+    private static final int SHARD_COUNT = 16;
+
+    /**
+     * Generation of a shard file named without a generation, as written by earlier versions.
+     */
+    private static final long NO_GENERATION = -1;
+
+    private File manifestFile;
+    private long sequence;
+
+    /**
+     * Generation of the file of each shard, followed by that of the synonym shard, as in the manifest.
+     */
+    private long[] generations;
+
+    /**
+     * Creates the sharded snapshot whose shard files are named after the manifest file.
+     * @param manifestFile the manifest file
+     */
+    public ShardedSnapshotFile(File manifestFile) {
+        this.manifestFile = manifestFile;
+        this.generations = new long[SHARD_COUNT + 1];
+        Arrays.fill(generations, NO_GENERATION);
+    }
+
+    public boolean exists() {
+        return manifestFile.exists();
+    }
+
+    /**
+     * Gets the file of a shard of the given generation, where the shard after the last word shard holds the synonyms.
+     */
+    private File shardFile(int shard, long generation) {
+        String name = manifestFile.getPath() + "-" + (shard == SHARD_COUNT ? "synonyms" : String.valueOf(shard));
+        return new File(generation == NO_GENERATION ? name : name + "." + generation);
+    }
+
+    /**
+     * Gets the current file of a shard.
+     * @param shard index of the shard
+     * @return the file named in the manifest last read or written
+     */
+    File getShardFile(int shard) {
+        return shardFile(shard, generations[shard]);
+    }
+
+    /**
+     * Gets the shard of a word, which does not change between runs since the hash of a string is fixed.
+     * @param word word to be placed
+     * @return index of the shard holding the word
+     */
+    static int shardOf(String word) {
+        return Math.floorMod(word.hashCode(), SHARD_COUNT);
+    }
+
+    /**
+     * Writes the shards holding changed words, and the synonym shard if any synonym changed, followed by the manifest.
+     * @param snapshot snapshot of the whole bank, with the words and synonyms changed since the last one
+     * @param isFullWrite true to write every shard, such as when there is no earlier sharded snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void write(BankSnapshot snapshot, boolean isFullWrite) throws IOException {
+        HashSet<Integer> changedShards = new HashSet<>();
+        for (String word : snapshot.getChangedWords()) {
+            changedShards.add(shardOf(word));
+        }
+        ArrayList<List<Integer>> shardIndexes = new ArrayList<>();
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            shardIndexes.add(new ArrayList<>());
+        }
+        if (isFullWrite || !changedShards.isEmpty()) {
+            String[] words = snapshot.getWords();
+            for (int i = 0; i < words.length; i++) {
+                shardIndexes.get(shardOf(words[i])).add(i);
+            }
+        }
+        long[] newGenerations = generations.clone();
+        long generation = Arrays.stream(generations).max().getAsLong() + 1;
+        for (int shard = 0; shard <= SHARD_COUNT; shard++) {
+            boolean isSynonymShard = shard == SHARD_COUNT;
+            if (isFullWrite || (isSynonymShard ? snapshot.hasChangedSynonyms() : changedShards.contains(shard))) {
+                new SnapshotFile(shardFile(shard, generation)).write(isSynonymShard
+                        ? snapshot.selectSynonyms() : snapshot.selectWords(shardIndexes.get(shard)));
+                newGenerations[shard] = generation;
+            }
+        }
+        writeManifest(snapshot.getSequence(), newGenerations);
+        long[] oldGenerations = generations;
+        generations = newGenerations;
+        for (int shard = 0; shard <= SHARD_COUNT; shard++) {
+            if (oldGenerations[shard] != newGenerations[shard]) {
+                shardFile(shard, oldGenerations[shard]).delete();
+            }
+        }
+    }
+
+    private void writeManifest(long sequence, long[] generations) throws IOException {
+        File tempFile = new File(manifestFile.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(fileOut)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeInt(SHARD_COUNT);
+            for (long generation : generations) {
+                out.writeLong(generation);
+            }
+            out.flush();
+            fileOut.getChannel().force(false);
+        }
+        SnapshotFile.moveAtomically(tempFile, manifestFile);
+    }
+
+    /**
+     * Reads all shards in parallel, each through its own memory map, and then adds them to one bank.
+     * @return the bank, with the sequence number of the manifest
+     * @throws IOException if the manifest or a shard cannot be read
+     */
+    public Bank read() throws IOException {
+        return read(0);
+    }
+
+    /**
+     * Reads all shards in parallel like read, but leaves the meanings and examples of the words in the mapped
+     * shard files, to be read when they are asked for.
+     * @param textCacheSize number of words of each shard whose meaning and example are kept in memory once read
+     * @return the bank, with the sequence number of the manifest
+     * @throws IOException if the manifest or a shard cannot be read
+     */
+    public Bank readLazily(int textCacheSize) throws IOException {
+        return read(textCacheSize);
+    }
+
+    private Bank read(int textCacheSize) throws IOException {
+        long sequence;
+        long[] generations = new long[SHARD_COUNT + 1];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(manifestFile))) {
+            int magic = in.readInt();
+            int version = in.readInt();
+            if (magic != MAGIC || (version != VERSION && version != UNVERSIONED)) {
+                throw new IOException("Unknown snapshot manifest format: " + manifestFile.getAbsolutePath());
+            }
+            sequence = in.readLong();
+            if (in.readInt() != SHARD_COUNT) {
+                throw new IOException("Snapshot has a different number of shards: " + manifestFile.getAbsolutePath());
+            }
+            for (int shard = 0; shard <= SHARD_COUNT; shard++) {
+                generations[shard] = version == UNVERSIONED ? NO_GENERATION : in.readLong();
+            }
+        }
+        ArrayList<SnapshotFile> files = new ArrayList<>();
+        for (int shard = 0; shard <= SHARD_COUNT; shard++) {
+            files.add(new SnapshotFile(shardFile(shard, generations[shard])));
+        }
+        deleteOtherFiles(files);
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            ArrayList<Future<BankSnapshot>> shards = new ArrayList<>();
+            for (SnapshotFile file : files) {
+                shards.add(executor.submit(() -> textCacheSize > 0 ? file.readLazily(textCacheSize) : file.read()));
+            }
+            Bank bank = new Bank();
+            for (Future<BankSnapshot> shard : shards) {
+                shard.get().loadInto(bank);
+            }
+            this.sequence = sequence;
+            this.generations = generations;
+            return bank;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + manifestFile.getAbsolutePath(), e);
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to read a shard of " + manifestFile.getAbsolutePath(), e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Gets the sequence number read from the manifest by the last read.
+     * @return sequence number of the last journal operation included in the snapshot
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Deletes the shard files not named in the manifest, such as files of older generations that could not be
+     * deleted while they were mapped, or files written by a snapshot that crashed before its manifest.
+     */
+    private void deleteOtherFiles(List<SnapshotFile> currentFiles) {
+        HashSet<String> currentNames = new HashSet<>();
+        for (SnapshotFile file : currentFiles) {
+            currentNames.add(file.getName());
+        }
+        for (File file : listShardFiles()) {
+            if (!currentNames.contains(file.getName())) {
+                file.delete();
+            }
+        }
+    }
+
+    private File[] listShardFiles() {
+        String prefix = manifestFile.getName() + "-";
+        File[] files = manifestFile.getAbsoluteFile().getParentFile().listFiles(
+                (directory, name) -> name.startsWith(prefix));
+        return files == null ? new File[0] : files;
+    }
+
+    /**
+     * Deletes the manifest and all shard files.
+     */
+    public void delete() {
+        manifestFile.delete();
+        for (File file : listShardFiles()) {
+            file.delete();
+        }
+    }
+}
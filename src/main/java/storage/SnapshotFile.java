@@ -0,0 +1,258 @@
+package storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes the binary snapshot file holding all words, tags, synonyms and search counts of a bank.
+ * The file starts with the tag table, followed by every word with its meaning, example, search count and tag ids,
+ * and ends with every word of the synonym bank with the index of its root word.
+ * Strings are written as their length in bytes followed by their UTF-8 bytes.
+ * Everything after the magic number and version is written in blocks compressed with Deflate and checked by CRC32C,
+ * so that a damaged file is found when it is read, rather than loading a damaged bank.
+ * Files of the previous version, which are not compressed, can still be read.
+ */
+public class SnapshotFile {
+    private static final int MAGIC = 0x57555053;
+    private static final int VERSION = 3;
+    private static final int UNCOMPRESSED_VERSION = 2;
+    private static final int HEADER_LENGTH = 8;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private File file;
+
+    public SnapshotFile(File file) {
+        this.file = file;
+    }
+
+    public boolean exists() {
+        return file.exists();
+    }
+
+    public String getName() {
+        return file.getName();
+    }
+
+    public boolean delete() {
+        return file.delete();
+    }
+
+    /**
+     * Writes a snapshot to a temporary file, forces it to the disk and then moves it over the snapshot file,
+     * so that the snapshot file is never left half written.
+     * @param snapshot snapshot to be written
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void write(BankSnapshot snapshot) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile)) {
+            BufferedOutputStream bufferedOut = new BufferedOutputStream(fileOut, BUFFER_SIZE);
+            DataOutputStream header = new DataOutputStream(bufferedOut);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            BlockOutputStream blocks = new BlockOutputStream(bufferedOut);
+            DataOutputStream out = new DataOutputStream(blocks);
+            out.writeLong(snapshot.getSequence());
+            out.writeInt(snapshot.getTagNames().length);
+            for (String tag : snapshot.getTagNames()) {
+                writeString(out, tag);
+                blocks.endRecord();
+            }
+            out.writeInt(snapshot.getSize());
+            for (int i = 0; i < snapshot.getSize(); i++) {
+                writeString(out, snapshot.getWords()[i]);
+                writeString(out, snapshot.getMeaning(i));
+                writeString(out, snapshot.getExample(i));
+                out.writeInt(snapshot.getNumbersOfSearches()[i]);
+                int[] tagIds = snapshot.getTagIds()[i];
+                out.writeInt(tagIds.length);
+                for (int tagId : tagIds) {
+                    out.writeInt(tagId);
+                }
+                blocks.endRecord();
+            }
+            out.writeInt(snapshot.getSynonymWords().length);
+            for (int i = 0; i < snapshot.getSynonymWords().length; i++) {
+                writeString(out, snapshot.getSynonymWords()[i]);
+                out.writeInt(snapshot.getSynonymRoots()[i]);
+                blocks.endRecord();
+            }
+            blocks.finish();
+            bufferedOut.flush();
+            fileOut.getFD().sync();
+        }
+        try {
+            moveAtomically(tempFile, file);
+        } catch (AccessDeniedException e) {
+            // A mapped snapshot is only unmapped once its buffer is collected, and until then
+            // some file systems refuse to replace it.
+            System.gc();
+            moveAtomically(tempFile, file);
+        }
+    }
+
+    /**
+     * Reads the snapshot file through a memory map. Its blocks are verified and inflated in parallel,
+     * and then decoded without copying them into a stream buffer.
+     * @return the snapshot stored in the file
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public BankSnapshot read() throws IOException {
+        return read(0);
+    }
+
+    /**
+     * Reads the snapshot file through a memory map, leaving the meanings and examples in the mapped file,
+     * to be read when a word loaded from the snapshot is asked for them, by inflating the block holding them.
+     * The file must then never be changed or replaced, only deleted.
+     * @param textCacheSize number of words whose meaning and example are kept in memory once read
+     * @return the snapshot stored in the file, with no meanings and examples
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public BankSnapshot readLazily(int textCacheSize) throws IOException {
+        return read(textCacheSize);
+    }
+
+    private BankSnapshot read(int textCacheSize) throws IOException {
+        boolean isLazy = textCacheSize > 0;
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.limit() < HEADER_LENGTH || buffer.getInt() != MAGIC) {
+                throw new IOException("Unknown snapshot format: " + file.getAbsolutePath());
+            }
+            int version = buffer.getInt();
+            BlockReader blocks = null;
+            if (version == VERSION) {
+                blocks = new BlockReader(buffer, HEADER_LENGTH, file.getAbsolutePath());
+                buffer = ByteBuffer.wrap(blocks.readAll());
+            } else if (version != UNCOMPRESSED_VERSION) {
+                throw new IOException("Unknown snapshot format: " + file.getAbsolutePath());
+            }
+            StringDecoder decoder = new StringDecoder(buffer);
+            long sequence = buffer.getLong();
+            String[] tagNames = new String[buffer.getInt()];
+            for (int i = 0; i < tagNames.length; i++) {
+                tagNames[i] = decoder.next();
+            }
+            int size = buffer.getInt();
+            String[] words = new String[size];
+            String[] meanings = isLazy ? null : new String[size];
+            String[] examples = isLazy ? null : new String[size];
+            int[] textOffsets = isLazy ? new int[size] : null;
+            int[] numbersOfSearches = new int[size];
+            int[][] tagIds = new int[size][];
+            for (int i = 0; i < size; i++) {
+                words[i] = decoder.next();
+                if (isLazy) {
+                    textOffsets[i] = buffer.position();
+                    MappedWordText.skip(buffer);
+                } else {
+                    meanings[i] = decoder.next();
+                    examples[i] = decoder.next();
+                }
+                numbersOfSearches[i] = buffer.getInt();
+                tagIds[i] = new int[buffer.getInt()];
+                for (int j = 0; j < tagIds[i].length; j++) {
+                    tagIds[i][j] = buffer.getInt();
+                }
+            }
+            String[] synonymWords = new String[buffer.getInt()];
+            int[] synonymRoots = new int[synonymWords.length];
+            for (int i = 0; i < synonymWords.length; i++) {
+                synonymWords[i] = decoder.next();
+                synonymRoots[i] = buffer.getInt();
+            }
+            BankSnapshot snapshot = new BankSnapshot(sequence, words, meanings, examples, numbersOfSearches, tagNames,
+                    tagIds, synonymWords, synonymRoots);
+            if (isLazy) {
+                MappedWordText text = blocks == null
+                        ? new MappedWordText(buffer, textCacheSize)
+                        : new MappedWordText(blocks, textCacheSize);
+                snapshot.setText(text, textOffsets);
+            }
+            return snapshot;
+        } catch (BufferUnderflowException | NegativeArraySizeException | IllegalArgumentException
+                | IndexOutOfBoundsException e) {
+            throw new IOException("Snapshot is truncated: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Decodes the length-prefixed UTF-8 strings of a mapped snapshot, reusing one byte array for all of them.
+     */
+    private static class StringDecoder {
+        private ByteBuffer buffer;
+        private byte[] bytes;
+
+        StringDecoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.bytes = new byte[64];
+        }
+
+        String next() {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            buffer.get(bytes, 0, length);
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Moves a file over another one, atomically if the file system supports it.
+     * @param source file to be moved
+     * @param target file to be replaced
+     * @throws IOException if the file cannot be moved
+     */
+    static void moveAtomically(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes a string as its length in bytes followed by its UTF-8 bytes, with length -1 for null.
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
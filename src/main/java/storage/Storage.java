@@ -1,56 +1,73 @@
 package storage;
 
 import dictionary.Bank;
-import dictionary.TagBank;
+import dictionary.BankOperation;
 import dictionary.Word;
-import dictionary.WordBank;
-import dictionary.SynonymBank;
-import exception.NoWordFoundException;
 import exception.ReminderWrongDateFormatException;
-import exception.UnableToWriteFileException;
-import exception.WordAlreadyExistsException;
-import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.CellType;
-import org.apache.poi.ss.usermodel.Font;
-import org.apache.poi.ss.usermodel.HorizontalAlignment;
-import org.apache.poi.ss.usermodel.IndexedColors;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import exception.WordUpException;
 import parser.Parser;
 import reminder.Reminder;
+import reminder.ReminderScheduler;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 
 import java.io.File;
-import java.io.FileInputStream;
 
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
 
 /**
  * Represents the object that reads and writes to the text files where data is stored.
  */
 public class Storage {
+    private static final Logger LOGGER = Logger.getLogger(Storage.class.getName());
 
     public static String REMINDER_FILE_PATH;
     public static String DATA_FILE_PATH;
     public static String EXCEL_PATH;
-    private File excelFile;
+    public static String JOURNAL_PATH;
+    public static String SNAPSHOT_PATH;
+    public static String SHARDS_PATH;
+    public static String STORE_PATH;
+    public static String COUNTER_PATH;
+
+    /**
+     * System property choosing the backend at startup, either "excel" or "mvstore".
+     */
+    public static final String BACKEND_PROPERTY = "wordup.backend";
+
+    /**
+     * System property that, when true, loads meanings and examples from the snapshot only when they are asked for.
+     */
+    public static final String LAZY_PROPERTY = "wordup.lazy";
+
+    private StorageBackend backend;
+    private PersistenceExecutor persistence;
+    private SearchCounter searchCounter;
+    private int operationCount;
+
+    /**
+     * Versions of the sections of the bank when it was last exported, or null before it is loaded.
+     */
+    private long[] exportedVersions;
+
+    /**
+     * Time taken by each phase of loading the bank and the reminders, or null before they are loaded.
+     */
+    private PhaseTimer loadTimer;
+
+    /**
+     * Shows the reminders when they are due, or null if reminders are only kept and never shown.
+     */
+    private ReminderScheduler reminderScheduler;
 
     /**
      * Creates new text file if no such file already exists and sets FILE_PATH to the absolute path of the text file.
@@ -83,7 +100,7 @@ public class Storage {
 
         File dataExcel = new File(filePath, "wordup.xlsx");
         EXCEL_PATH = dataExcel.getAbsolutePath();
-        excelFile = new File(EXCEL_PATH);
+        setUpBackend();
     }
 
     /**
@@ -119,7 +136,33 @@ public class Storage {
 
         File dataExcel = new File(filePath, testExcelName);
         EXCEL_PATH = dataExcel.getAbsolutePath();
-        excelFile = new File(EXCEL_PATH);
+        setUpBackend();
+    }
+
+    /**
+     * Places the journal, snapshot and store files next to the excel file, with the same name,
+     * and opens the backend chosen by the wordup.backend system property, the excel file by default.
+     */
+    private void setUpBackend() {
+        String basePath = EXCEL_PATH.substring(0, EXCEL_PATH.lastIndexOf('.'));
+        JOURNAL_PATH = basePath + ".journal";
+        SNAPSHOT_PATH = basePath + ".snapshot";
+        SHARDS_PATH = basePath + ".shards";
+        STORE_PATH = basePath + ".mv.db";
+        COUNTER_PATH = basePath + ".counts";
+        if ("mvstore".equals(System.getProperty(BACKEND_PROPERTY))) {
+            backend = KeyValueBackend.open(new File(STORE_PATH), new File(EXCEL_PATH), new File(REMINDER_FILE_PATH));
+        } else {
+            backend = new ExcelBackend(new File(EXCEL_PATH), new File(JOURNAL_PATH), new File(SNAPSHOT_PATH),
+                    new File(SHARDS_PATH), new File(REMINDER_FILE_PATH), new File(COUNTER_PATH),
+                    Boolean.getBoolean(LAZY_PROPERTY));
+        }
+        persistence = new PersistenceExecutor(backend);
+        searchCounter = new SearchCounter(persistence);
+    }
+
+    StorageBackend getBackend() {
+        return backend;
     }
 
     /**
@@ -128,75 +171,135 @@ public class Storage {
      * @return a stack containing all input words ordered by SEQUENCE OF ENTRY
      */
     public Stack<Word> loadHistoryFile() {
-        File file = new File(DATA_FILE_PATH);
-        FileReader fr = null;
-        BufferedReader br = null;
+        persistence.flushHistory();
         try {
-            fr = new FileReader(file);
-            br = new BufferedReader(fr);
             Stack<Word> wordHistory = new Stack<>();
-            String line = br.readLine();
-            while (line != null) {
-                // get data from storage
-                // parse the line first
-                if (line.equals("")) {
-                    line = br.readLine();
-                    continue;
-                }
+            for (String line : RecordFile.open(new File(DATA_FILE_PATH)).readAll()) {
                 String[] parsedWordAndMeaning = line.split(":");
                 Word word = new Word(parsedWordAndMeaning[0].trim(), parsedWordAndMeaning[1].trim());
                 wordHistory.add(word);
-                line = br.readLine();
             }
             return wordHistory;
         } catch (IOException e) {
             e.printStackTrace();
             return null;
-        } finally {
-            try {
-                br.close();
-                fr.close();
-            } catch (IOException e) {
-                e.printStackTrace();
+        }
+    }
+
+    /**
+     * Converts the last words added from the text file, reading it backwards from its end.
+     * @param numberOfWords number of words to be read
+     * @return a stack containing the last input words ordered by SEQUENCE OF ENTRY
+     */
+    public Stack<Word> loadHistoryTail(int numberOfWords) {
+        persistence.flushHistory();
+        try {
+            List<String> lines = RecordFile.open(new File(DATA_FILE_PATH)).readLast(numberOfWords);
+            Stack<Word> wordHistory = new Stack<>();
+            for (int i = lines.size() - 1; i >= 0; i--) {
+                String[] parsedWordAndMeaning = lines.get(i).split(":");
+                wordHistory.add(new Word(parsedWordAndMeaning[0].trim(), parsedWordAndMeaning[1].trim()));
             }
+            return wordHistory;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
         }
     }
 
     /**
-     * Checks the reminders.txt file and creates reminders from the data stored.
+     * Checks the reminders kept by the backend and creates reminders from the data stored.
      */
     public void loadRemindersFile() {
-        File file = new File(REMINDER_FILE_PATH);
-        FileReader fr = null;
-        BufferedReader br = null;
+        setReminders(readReminders());
+    }
+
+    /**
+     * Reads and parses the reminders kept by the backend, skipping lines that are not valid reminders.
+     * Reminders are not set yet, so this may run on any thread.
+     * @return the parsed reminders
+     */
+    private ArrayList<Reminder> readReminders() {
+        ArrayList<Reminder> reminders = new ArrayList<>();
         try {
-            fr = new FileReader(file);
-            br = new BufferedReader(fr);
-            ArrayList<String> reminderWordList = new ArrayList<>();
-
-            String line = br.readLine();
-            while (line != null) {
-                if (line.equals("")) {
-                    line = br.readLine();
+            for (String line : backend.loadReminders()) {
+                String[] reminderInfo = line.split(" \\| ");
+                if (reminderInfo.length < 2) {
+                    LOGGER.warning("Skipped reminder: " + line);
                     continue;
                 }
-                String[] reminderInfo = line.split(" \\| ");
-                String[] wordList = reminderInfo[1].split(","); //catch exception here
-                reminderWordList.addAll(Arrays.asList(wordList));
-                Date date = Parser.parseDate(reminderInfo[0]);
-                new Reminder(date, reminderWordList, line);
-                line = br.readLine();
+                try {
+                    Date date = Parser.parseDate(reminderInfo[0]);
+                    reminders.add(new Reminder(date, new ArrayList<>(Arrays.asList(reminderInfo[1].split(","))),
+                            line));
+                } catch (ReminderWrongDateFormatException e) {
+                    e.printStackTrace();
+                }
             }
-        } catch (IOException | ReminderWrongDateFormatException e) {
+        } catch (IOException e) {
             e.printStackTrace();
-        } finally {
-            try {
-                br.close();
-                fr.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
         }
+        return reminders;
+    }
+
+    /**
+     * Hands the reminders to the scheduler, which keeps them ordered by due time and only schedules the next ones.
+     * Reminders that came due while WordUp was closed are shown together.
+     */
+    private void setReminders(List<Reminder> reminders) {
+        if (reminderScheduler != null) {
+            reminderScheduler.addAll(reminders);
+        }
+    }
+
+    /**
+     * Sets the scheduler showing the reminders loaded from now on and those added by commands.
+     * @param reminderScheduler the scheduler, owned by WordUp
+     */
+    public void setReminderScheduler(ReminderScheduler reminderScheduler) {
+        this.reminderScheduler = reminderScheduler;
+    }
+
+    /**
+     * Schedules a reminder that was just saved to be shown when it is due.
+     * @param reminder the reminder to be shown
+     */
+    public void scheduleReminder(Reminder reminder) {
+        setReminders(Collections.singletonList(reminder));
+    }
+
+    /**
+     * Loads the bank and the reminders at startup, reading the reminders on another thread while the bank is loaded.
+     * The reminders are only set once both are read, and the time taken by each phase is kept.
+     * @return Bank object containing all data for dictionary
+     */
+    public Bank loadBankAndReminders() {
+        PhaseTimer timer = new PhaseTimer();
+        loadTimer = timer;
+        long startTime = System.nanoTime();
+        CompletableFuture<ArrayList<Reminder>> reminders = CompletableFuture.supplyAsync(() -> {
+            long readTime = System.nanoTime();
+            ArrayList<Reminder> loadedReminders = readReminders();
+            timer.record("reminders", readTime);
+            return loadedReminders;
+        });
+        long bankTime = System.nanoTime();
+        Bank bank = loadBank();
+        timer.record("bank", bankTime);
+        long mergeTime = System.nanoTime();
+        setReminders(reminders.join());
+        timer.record("reminder setup", mergeTime);
+        timer.record("total", startTime);
+        LOGGER.fine("Loaded WordUp: " + timer);
+        return bank;
+    }
+
+    /**
+     * Gets the time taken by each phase of loading the bank and the reminders.
+     * @return the timings of each phase, or null if the bank and the reminders were not loaded together
+     */
+    public PhaseTimer getLoadTimer() {
+        return loadTimer;
     }
 
     public void writeStorage(String s, boolean append, String fileType, Bank bank) {
@@ -205,441 +308,202 @@ public class Storage {
     }
 
     /**
-     * Writes data to an extracted file.
+     * Starts a transaction collecting everything one command saves, to be written together.
+     * @return a transaction to be committed once the command is done
+     */
+    public StorageTransaction beginTransaction() {
+        return new StorageTransaction(this);
+    }
+
+    /**
+     * Writes data to an extracted file in the background.
      * @param s        new word to be added
      * @param append   return true if the file can be appended
      * @param fileType indicates the file to be edited, reminders.txt or wordup.txt
      */
     public void writeFile(String s, boolean append, String fileType) {
-        File file;
-        FileWriter fw = null;
-        BufferedWriter bw = null;
-        try {
-            if (fileType.equals("wordup")) {
-                file = new File(DATA_FILE_PATH);
-            } else if (fileType.equals("reminder")) {
-                file = new File(REMINDER_FILE_PATH);
-            } else {
-                throw new UnableToWriteFileException();
-            }
-
-            fw = new FileWriter(file, append);
-            bw = new BufferedWriter(fw);
-            bw.write(s);
-            bw.newLine();
-        } catch (IOException | UnableToWriteFileException e) {
-            e.printStackTrace();
-        } finally {
-            try {
-                bw.close();
-                fw.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
+        StorageTransaction transaction = beginTransaction();
+        transaction.writeFile(s, append, fileType);
+        transaction.commit();
     }
 
     /**
-     * Updates a word in extracted file.
+     * Updates a word in extracted file in the background.
      * @param oldString value of old word
      * @param newString value of word after updated
      * @param fileType  indicates the file to be edited, reminders.txt or wordup.txt
      */
     public void updateFile(String oldString, String newString, String fileType) {
-        File file;
-        FileReader fr = null;
-        BufferedReader br = null;
-        try {
-            if (fileType.equals("wordup")) {
-                file = new File(DATA_FILE_PATH);
-            } else if (fileType.equals("reminder")) {
-                file = new File(REMINDER_FILE_PATH);
-            } else {
-                throw new UnableToWriteFileException();
-            }
-
-            fr = new FileReader(file);
-            br = new BufferedReader(fr);
-            String oldContent = "";
-            String line = br.readLine();
-
-            while ((line != null) && (!line.equals("\n"))) {
-                oldContent = oldContent + line + System.lineSeparator();
-                line = br.readLine();
-            }
-            oldContent = oldContent.substring(0, oldContent.length() - 1);
-            String newContent = oldContent.replace(oldString, newString).trim();
-            this.writeFile(newContent, false, fileType);
-        } catch (IOException | UnableToWriteFileException e) {
-            e.printStackTrace();
-        } finally {
-            try {
-                br.close();
-                fr.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
+        StorageTransaction transaction = beginTransaction();
+        transaction.updateFile(oldString, newString, fileType);
+        transaction.commit();
     }
 
     /**
      * Writes the data to excel file.
+     * The workbook is streamed from the bank, so the existing file is never read back into memory.
+     * Nothing is written if no section of the bank changed since it was last exported.
      * @param bank represents the data bank
      */
     public void writeExcelFile(Bank bank) {
-        writeWordBankExcelFile(bank.getWordBankObject());
-        writeTagBankExcelFile(bank.getTagBank());
-    }
-
-    /**
-     * Loads data from excel file to Bank.
-     * @return Bank object containing all data for dictionary
-     */
-    public Bank loadExcelFile() {
-        Bank bank = new Bank();
+        if (exportedVersions != null && !bank.getChanges().isChangedSince(exportedVersions)
+                && new File(EXCEL_PATH).exists()) {
+            return;
+        }
         try {
-            FileInputStream fileInputStream = new FileInputStream(excelFile);
-
-            Workbook workbook = new XSSFWorkbook(fileInputStream);
-
-            Sheet wordBankSheet = workbook.getSheetAt(0);
-            Iterator<Row> rowIterator = wordBankSheet.iterator();
-            rowIterator.next();
-            while (rowIterator.hasNext()) {
-                Row row = rowIterator.next();
-                Iterator<Cell> cellIterator = row.cellIterator();
-                short columnCount = row.getLastCellNum();
-                String word = cellIterator.next().getStringCellValue();
-
-                bank.addWord(new
-                        Word(word, cellIterator.next().getStringCellValue())
-                );
-                if ((int)columnCount > 2) {
-                    //System.out.println(columnCount);
-                    String example = cellIterator.next().getStringCellValue();
-                    bank.addExampleToWord(word, example);
-                }
-
-            }
-
-            Sheet tagBankSheet = workbook.getSheetAt(1);
-            Iterator<Row> rowIteratorTagBank = tagBankSheet.iterator();
-            rowIteratorTagBank.next();
-            while (rowIteratorTagBank.hasNext()) {
-                Row row = rowIteratorTagBank.next();
-                Iterator<Cell> cellIterator = row.cellIterator();
-                String tag = cellIterator.next().getStringCellValue();
-                String[] allWords = cellIterator.next().getStringCellValue().split(", ");
-
-                for (int i = 0; i < allWords.length; i++) {
-                    bank.addTagToWord(allWords[i], tag);
-                }
-            }
-
-            Sheet synonymBankSheet = workbook.getSheetAt(2);
-            Iterator<Row> rowIteratorSynonymBank = synonymBankSheet.iterator();
-            rowIteratorSynonymBank.next();
-            while (rowIteratorSynonymBank.hasNext()) {
-                Row row = rowIteratorSynonymBank.next();
-                Iterator<Cell> cellIterator = row.cellIterator();
-                String[] allWords = cellIterator.next().getStringCellValue().split(", ");
-
-                for (int i = 0; i < allWords.length; i++) {
-                    bank.addSynonymToWord(allWords[i], allWords[0]);
-                }
-            }
-            fileInputStream.close();
-        } catch (FileNotFoundException e) {
-            createExcelFile();
+            new ExcelStreamWriter(EXCEL_PATH).write(bank);
+            exportedVersions = bank.getChanges().getVersions();
+            bank.getChanges().clearChangedRows();
         } catch (IOException e) {
             e.printStackTrace();
-        } catch (WordAlreadyExistsException e) {
-            e.showError();
-        } catch (NoWordFoundException e) {
-            e.showError();
         }
-        return bank;
     }
 
     /**
-     * Creates a new excel file wordup in data folder if it doesn't exist.
+     * Hands the operations made on the bank since the last save to the background thread,
+     * which commits them to the backend together with the operations following them shortly.
+     * @param bank represents the data bank
      */
-    private void createExcelFile() {
-        Workbook workbook = new XSSFWorkbook();
-
-        Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerFont.setFontHeightInPoints((short) 12);
-        headerFont.setColor(IndexedColors.RED.getIndex());
-
-        CellStyle headerCellStyle = workbook.createCellStyle();
-        headerCellStyle.setFont(headerFont);
-        headerCellStyle.setAlignment(HorizontalAlignment.CENTER);
-
-        Row headerRow;
-        Cell cell;
-
-        Sheet wordBankSheet = workbook.createSheet("WordBank");
-        headerRow = wordBankSheet.createRow(0);
-
-        cell = headerRow.createCell(0);
-        cell.setCellValue("Word");
-        cell.setCellStyle(headerCellStyle);
-
-        cell = headerRow.createCell(1);
-        cell.setCellValue("Meaning");
-        cell.setCellStyle(headerCellStyle);
-
-        cell = headerRow.createCell(2);
-        cell.setCellValue("Example");
-        cell.setCellStyle(headerCellStyle);
-
-        wordBankSheet.autoSizeColumn(0);
-        wordBankSheet.autoSizeColumn(1);
-        wordBankSheet.autoSizeColumn(2);
-
-        Sheet tagBankSheet = workbook.createSheet("TagBank");
-        headerRow = tagBankSheet.createRow(0);
-
-        cell = headerRow.createCell(0);
-        cell.setCellValue("Tag");
-        cell.setCellStyle(headerCellStyle);
-
-        cell = headerRow.createCell(1);
-        cell.setCellValue("Words");
-        cell.setCellStyle(headerCellStyle);
-
-        tagBankSheet.autoSizeColumn(0);
-        tagBankSheet.autoSizeColumn(1);
-
-        Sheet synonymBankSheet = workbook.createSheet("SynonymBank");
-        headerRow = synonymBankSheet.createRow(0);
-
-        cell = headerRow.createCell(0);
-        cell.setCellValue("Word with same meaning");
-        cell.setCellStyle(headerCellStyle);
-
-        synonymBankSheet.autoSizeColumn(0);
+    public void writeChanges(Bank bank) {
+        StorageTransaction transaction = beginTransaction();
+        transaction.writeChanges(bank);
+        transaction.commit();
+    }
 
-        try {
-            FileOutputStream fileOut = new FileOutputStream(EXCEL_PATH);
-            workbook.write(fileOut);
-            fileOut.close();
-            workbook.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Hands a committed transaction to the background thread.
+     * Searches are taken out of it and handed over in batches by the search counter.
+     * Once enough operations are saved, the backend may ask for a new snapshot of the bank.
+     * @param bank represents the data bank, or null if the transaction did not change it
+     * @param operations operations made on the bank
+     * @param fileWrites writes of the reminders, or null if there are none
+     */
+    void commit(Bank bank, List<BankOperation> operations, Runnable fileWrites) {
+        if (bank != null) {
+            operations = searchCounter.collect(bank, operations);
+        }
+        if (operations.isEmpty() && fileWrites == null) {
+            return;
+        }
+        operationCount += operations.size();
+        persistence.submit(operations, fileWrites);
+        if (bank != null && backend.needsSnapshot(operationCount)) {
+            compact(bank);
         }
     }
 
     /**
-     * Deletes multiple of redundant rows in WordBank sheet in excel file after DeleteCommand.
-     * @param lastRow          last row in excel file after deletion
-     * @param lastRedundantRow last row in excel file before deletion
+     * Takes a snapshot of the bank to be written in the background, telling the backend
+     * if any word, tag or synonym changed since the bank was last exported, by comparing the versions of its sections.
+     * Only the words and their references are copied on the thread that owns the bank, while the meanings and
+     * examples not loaded into memory are read from their snapshot files by the thread writing the snapshot.
+     * @param bank represents the data bank
      */
-    public void deleteRowsWordBankSheet(int lastRow, int lastRedundantRow) {
-        try {
-            FileInputStream fileInputStream = new FileInputStream(excelFile);
-            Workbook workbook = new XSSFWorkbook(fileInputStream);
+    private void compact(Bank bank) {
+        BankSnapshot snapshot = BankSnapshot.capture(bank);
+        long[] versions = bank.getChanges().getVersions();
+        boolean isChanged = exportedVersions == null || bank.getChanges().isChangedSince(exportedVersions);
+        if (persistence.submitSnapshot(snapshot, isChanged)) {
+            exportedVersions = versions;
+            bank.getChanges().clearChangedRows();
+            operationCount = 0;
+        }
+    }
 
-            Sheet wordBankSheet = workbook.getSheetAt(0);
+    /**
+     * Hands writes of the history file to the thread appending to it, apart from the backend.
+     * @param historyWrites writes of the history file
+     */
+    void writeHistory(Runnable historyWrites) {
+        persistence.submitHistoryWrites(historyWrites);
+    }
 
-            for (int row = lastRow + 1; row <= lastRedundantRow; row++) {
-                wordBankSheet.removeRow(wordBankSheet.getRow(row));
-            }
+    /**
+     * Hands over the search counts not saved yet, and waits until all changes are written to the disk.
+     */
+    public void flush() {
+        searchCounter.flush();
+        persistence.flush();
+    }
 
-            FileOutputStream fileOutputStream = new FileOutputStream(EXCEL_PATH);
-            workbook.write(fileOutputStream);
-            fileInputStream.close();
-            fileOutputStream.close();
-            workbook.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Saves everything before WordUp closes, and waits until it is written to the disk.
+     * If any word, tag or synonym changed since the excel file was last exported, a snapshot of the bank is written,
+     * which exports the excel file, so that the file has every change made in WordUp when it is opened next.
+     * @param bank represents the data bank
+     */
+    public void flushAndExport(Bank bank) {
+        flush();
+        if (exportedVersions == null || bank.getChanges().isChangedSince(exportedVersions)) {
+            compact(bank);
+            persistence.flush();
         }
     }
 
     /**
-     * Deletes multiple of redundant rows in TagBank sheet in excel file after DeleteCommand.
-     *
-     * @param lastRow          last row in excel file after deletion
-     * @param lastRedundantRow last row in excel file before deletion
+     * Loads the bank from the backend, and hands a snapshot of it back if the backend asks for one,
+     * such as after it was imported from the excel file.
+     * @return Bank object containing all data for dictionary
      */
-    public void deleteRowsTagBankSheet(int lastRow, int lastRedundantRow) {
+    public Bank loadBank() {
+        Bank bank;
         try {
-            FileInputStream fileInputStream = new FileInputStream(excelFile);
-            Workbook workbook = new XSSFWorkbook(fileInputStream);
-
-            Sheet tagBankSheet = workbook.getSheetAt(1);
-
-            for (int row = lastRow + 1; row <= lastRedundantRow; row++) {
-                tagBankSheet.removeRow(tagBankSheet.getRow(row));
-            }
-
-            FileOutputStream fileOutputStream = new FileOutputStream(EXCEL_PATH);
-            workbook.write(fileOutputStream);
-            fileInputStream.close();
-            fileOutputStream.close();
-            workbook.close();
+            bank = backend.load();
         } catch (IOException e) {
             e.printStackTrace();
+            bank = new Bank();
+        }
+        bank.getChanges().drainOperations();
+        exportedVersions = bank.getChanges().isEmpty() ? bank.getChanges().getVersions() : null;
+        operationCount = backend.getOperationCount();
+        if (backend.needsSnapshot(operationCount)) {
+            compact(bank);
         }
+        return bank;
     }
 
     /**
-     * Writes data to TagBank sheet in excel file.
-     * @param tagBank data to be written into sheet
+     * Starts watching the excel file for edits made in a spreadsheet program, on a thread of its own.
+     * The changed rows are applied to the bank and saved on the thread that owns the bank.
+     * @param bank represents the data bank
+     * @param bankThread runs tasks on the thread that owns the bank, such as the JavaFX thread
+     * @return the watcher, to be stopped when WordUp closes
      */
-    public void writeTagBankExcelFile(TagBank tagBank) {
-        FileInputStream fileInputStream;
-        FileOutputStream fileOut;
+    public ExcelFileWatcher watchExcelFile(Bank bank, Executor bankThread) {
+        ExcelFileWatcher watcher = new ExcelFileWatcher(new File(EXCEL_PATH),
+                operations -> bankThread.execute(() -> applyExternalChanges(bank, operations)));
         try {
-            fileInputStream = new FileInputStream(excelFile);
-            Workbook workbook = WorkbookFactory.create(fileInputStream);
-
-            Sheet sheet = workbook.getSheetAt(1);
-            String[] allTags = tagBank.getAllTagsAsList();
-            String[] allWordsOfTag;
-            for (int i = 1; i <= allTags.length; i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) {
-                    row = sheet.createRow(i);
-                }
-
-                Cell cell = row.getCell(0);
-                if (cell == null) {
-                    cell = row.createCell(0);
-                }
-
-                cell.setCellType(CellType.STRING);
-                String tag = allTags[i - 1];
-                cell.setCellValue(tag);
-
-                allWordsOfTag = tagBank.getAllWordsOfTag(tag);
-
-                cell = row.getCell(1);
-                if (cell == null) {
-                    cell = row.createCell(1);
-                }
-                cell.setCellValue(String.join(", ", allWordsOfTag));
-            }
-
-            sheet.autoSizeColumn(0);
-            sheet.autoSizeColumn(1);
-
-            fileOut = new FileOutputStream(EXCEL_PATH);
-            workbook.write(fileOut);
-            fileInputStream.close();
-            fileOut.close();
-            workbook.close();
-        } catch (FileNotFoundException e) {
-            createExcelFile();
-        } catch (IOException | InvalidFormatException e) {
+            watcher.start();
+        } catch (IOException e) {
             e.printStackTrace();
         }
+        return watcher;
     }
 
     /**
-     * Writes data to SynonymBank sheet in excel file.
-     * @param synonymBank data to be written into sheet
+     * Applies the operations read from an edited excel file to the bank, skipping those on words that were
+     * deleted in WordUp meanwhile, and saves them like the changes made by a command.
+     * @param bank represents the data bank
+     * @param operations operations found by comparing the excel file with its last version
      */
-    public void writeSynonymBankExcelFile(SynonymBank synonymBank) {
-        FileInputStream fileInputStream;
-        FileOutputStream fileOut;
-        try {
-            fileInputStream = new FileInputStream(excelFile);
-            Workbook workbook = WorkbookFactory.create(fileInputStream);
-
-            Sheet sheet = workbook.getSheetAt(2);
-            ArrayList<ArrayList<String>> allSynonyms = synonymBank.getAllSynonymsAsList();
-            for (int i = 1; i <= allSynonyms.size(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) {
-                    row = sheet.createRow(i);
-                }
-
-                Cell cell = row.getCell(0);
-                if (cell == null) {
-                    cell = row.createCell(0);
-                }
-
-                cell.setCellType(CellType.STRING);
-                ArrayList<String> synonym = allSynonyms.get(i - 1);
-                cell.setCellValue(String.join(", ", synonym));
+    void applyExternalChanges(Bank bank, List<BankOperation> operations) {
+        for (BankOperation operation : operations) {
+            try {
+                bank.applyOperation(operation);
+            } catch (WordUpException e) {
+                LOGGER.warning("Skipped excel change " + operation + ": " + e.showError());
             }
-
-            sheet.autoSizeColumn(0);
-            sheet.autoSizeColumn(1);
-
-            fileOut = new FileOutputStream(EXCEL_PATH);
-            workbook.write(fileOut);
-            fileInputStream.close();
-            fileOut.close();
-            workbook.close();
-        } catch (FileNotFoundException e) {
-            createExcelFile();
-        } catch (IOException | InvalidFormatException e) {
-            e.printStackTrace();
         }
+        writeChanges(bank);
     }
 
     /**
-     * Writes data to WordBank sheet of excel file.
-     * @param wordBank data to be written to file
+     * Imports data from excel file to Bank.
+     * The sheets are streamed row by row instead of loading the whole workbook.
+     * @return Bank object containing all data for dictionary
      */
-    public void writeWordBankExcelFile(WordBank wordBank) {
-        FileInputStream fileInputStream;
-        FileOutputStream fileOut;
-        try {
-            fileInputStream = new FileInputStream(excelFile);
-            Workbook workbook = WorkbookFactory.create(fileInputStream);
-
-            Sheet sheet = workbook.getSheetAt(0);
-            Word[] allWords = wordBank.getAllWordsAsList();
-
-            for (int i = 1; i <= allWords.length; i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) {
-                    row = sheet.createRow(i);
-                }
-
-                Cell cell = row.getCell(0);
-                if (cell == null) {
-                    cell = row.createCell(0);
-                }
-
-                cell.setCellType(CellType.STRING);
-                String word = allWords[i - 1].getWordString();
-
-                cell.setCellValue(word);
-
-                cell = row.getCell(1);
-                if (cell == null) {
-                    cell = row.createCell(1);
-                }
-
-                cell.setCellValue(allWords[i - 1].getMeaning());
-
-                cell = row.getCell(2);
-                if (cell == null) {
-                    cell = row.createCell(2);
-                }
-
-                cell.setCellValue(allWords[i - 1].getExample());
-
-            }
-
-            sheet.autoSizeColumn(0);
-            sheet.autoSizeColumn(1);
-            sheet.autoSizeColumn(2);
-
-            fileOut = new FileOutputStream(EXCEL_PATH);
-            workbook.write(fileOut);
-            fileInputStream.close();
-            fileOut.close();
-            workbook.close();
-        } catch (FileNotFoundException e) {
-            createExcelFile();
-        } catch (IOException | InvalidFormatException e) {
-            e.printStackTrace();
-        }
+    public Bank loadExcelFile() {
+        return new ExcelBackend(new File(EXCEL_PATH), new File(JOURNAL_PATH), new File(SNAPSHOT_PATH),
+                new File(SHARDS_PATH), new File(REMINDER_FILE_PATH), new File(COUNTER_PATH), false).importExcelFile();
     }
 }
\ No newline at end of file
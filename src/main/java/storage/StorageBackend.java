@@ -0,0 +1,126 @@
+package storage;
+
+import dictionary.Bank;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents where the bank and the reminders are kept on disk.
+ * The bank is loaded once at startup, on the JavaFX thread. After that, the changes made by each command
+ * are handed to the backend one by one on the background persistence thread, and made durable together by commit.
+ */
+public interface StorageBackend {
+
+    /**
+     * Loads all words, tags, synonyms and search counts.
+     * @return the bank that was saved
+     * @throws IOException if the bank cannot be read
+     */
+    Bank load() throws IOException;
+
+    /**
+     * Adds a word, or changes its meaning if it already exists.
+     * @param word word to be saved
+     * @param meaning meaning of the word
+     * @throws IOException if the word cannot be written
+     */
+    void upsertWord(String word, String meaning) throws IOException;
+
+    /**
+     * Deletes a word with its example, tags and search count.
+     * @param word word to be deleted
+     * @throws IOException if the word cannot be written
+     */
+    void deleteWord(String word) throws IOException;
+
+    /**
+     * Sets the example of a word.
+     * @param word word that is changed
+     * @param example example sentence of the word
+     * @throws IOException if the word cannot be written
+     */
+    void setExample(String word, String example) throws IOException;
+
+    /**
+     * Adds a tag to a word.
+     * @param word word that is tagged
+     * @param tag tag to be added
+     * @throws IOException if the tag cannot be written
+     */
+    void addTag(String word, String tag) throws IOException;
+
+    /**
+     * Removes a tag from a word.
+     * @param word word that is untagged
+     * @param tag tag to be removed
+     * @throws IOException if the tag cannot be written
+     */
+    void removeTag(String word, String tag) throws IOException;
+
+    /**
+     * Joins two words as synonyms.
+     * @param word word to be joined
+     * @param synonym word with the same meaning
+     * @throws IOException if the synonym cannot be written
+     */
+    void addSynonym(String word, String synonym) throws IOException;
+
+    /**
+     * Saves the search counts of words, which are handed over in batches rather than one search at a time.
+     * A count of 0 forgets the count of a word.
+     * @param searchCounts map from each word to its new search count
+     * @throws IOException if the counts cannot be written
+     */
+    void saveSearchCounts(Map<String, Integer> searchCounts) throws IOException;
+
+    /**
+     * Loads the text of every reminder that has not shown up yet.
+     * @return the texts of the reminders
+     * @throws IOException if the reminders cannot be read
+     */
+    List<String> loadReminders() throws IOException;
+
+    /**
+     * Adds a reminder.
+     * @param reminder text of the reminder
+     * @throws IOException if the reminder cannot be written
+     */
+    void addReminder(String reminder) throws IOException;
+
+    /**
+     * Removes one reminder with the given text.
+     * @param reminder text of the reminder
+     * @throws IOException if the reminder cannot be written
+     */
+    void removeReminder(String reminder) throws IOException;
+
+    /**
+     * Makes all changes handed over since the last commit durable, all of them or none of them.
+     * @throws IOException if the changes cannot be written
+     */
+    void commit() throws IOException;
+
+    /**
+     * Gets the number of operations saved since the whole bank was last written, once the bank is loaded.
+     * @return number of operations that are not in a snapshot yet
+     */
+    int getOperationCount();
+
+    /**
+     * Checks if the whole bank should be written again, given the number of operations saved since it last was.
+     * Only called on the JavaFX thread.
+     * @param operationCount number of operations that are not in a snapshot yet
+     * @return true if a snapshot of the bank should be handed to writeSnapshot
+     */
+    boolean needsSnapshot(int operationCount);
+
+    /**
+     * Writes the whole bank, which includes all changes committed before it.
+     * @param snapshot copy of the bank
+     * @param hasChangedRows true if any word, tag or synonym changed since the bank was last exported
+     * @throws IOException if the snapshot cannot be written
+     */
+    void writeSnapshot(BankSnapshot snapshot, boolean hasChangedRows) throws IOException;
+}
@@ -0,0 +1,161 @@
+package storage;
+
+import dictionary.Bank;
+import dictionary.BankOperation;
+import exception.UnableToWriteFileException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents everything one command saves, written together when the transaction is committed.
+ * The operations made on the bank and the edits of the reminders go to the backend with one commit,
+ * and the edits of the history file are appended to it as records, on a thread of their own.
+ */
+public class StorageTransaction {
+    private Storage storage;
+    private Bank bank;
+    private LinkedHashMap<String, ArrayList<FileEdit>> fileEdits;
+    private ArrayList<FileEdit> reminderEdits;
+
+    StorageTransaction(Storage storage) {
+        this.storage = storage;
+        this.fileEdits = new LinkedHashMap<>();
+        this.reminderEdits = new ArrayList<>();
+    }
+
+    /**
+     * Saves the operations made on the bank up to the commit.
+     * @param bank represents the data bank
+     */
+    public void writeChanges(Bank bank) {
+        this.bank = bank;
+    }
+
+    /**
+     * Writes data to an extracted file.
+     * @param s        new word to be added
+     * @param append   return true if the file can be appended
+     * @param fileType indicates the file to be edited, reminders.txt or wordup.txt
+     */
+    public void writeFile(String s, boolean append, String fileType) {
+        addFileEdit(fileType, new FileEdit(append ? FileEdit.Type.APPEND : FileEdit.Type.OVERWRITE, null, s));
+    }
+
+    /**
+     * Updates a word in extracted file, or deletes it if the new value is empty.
+     * @param oldString value of old word
+     * @param newString value of word after updated
+     * @param fileType  indicates the file to be edited, reminders.txt or wordup.txt
+     */
+    public void updateFile(String oldString, String newString, String fileType) {
+        addFileEdit(fileType, new FileEdit(FileEdit.Type.REPLACE, oldString, newString));
+    }
+
+    private void addFileEdit(String fileType, FileEdit edit) {
+        try {
+            if (fileType.equals("wordup")) {
+                fileEdits.computeIfAbsent(Storage.DATA_FILE_PATH, key -> new ArrayList<>()).add(edit);
+            } else if (fileType.equals("reminder")) {
+                reminderEdits.add(edit);
+            } else {
+                throw new UnableToWriteFileException();
+            }
+        } catch (UnableToWriteFileException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Hands everything saved by the transaction to the background thread as one write.
+     */
+    public void commit() {
+        List<BankOperation> operations = bank == null ? new ArrayList<>() : bank.getChanges().drainOperations();
+        if (!fileEdits.isEmpty()) {
+            storage.writeHistory(this::writeFiles);
+        }
+        storage.commit(bank, operations, reminderEdits.isEmpty() ? null : this::writeReminders);
+    }
+
+    private void writeFiles() {
+        for (Map.Entry<String, ArrayList<FileEdit>> entry : fileEdits.entrySet()) {
+            try {
+                writeFile(new File(entry.getKey()), entry.getValue());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void writeReminders() {
+        try {
+            writeReminders(storage.getBackend());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Hands the edits of the reminders to the backend, which commits them with the operations on the bank.
+     * An overwrite replaces every reminder, and an update removes the old reminder before adding the new one.
+     */
+    private void writeReminders(StorageBackend backend) throws IOException {
+        for (FileEdit edit : reminderEdits) {
+            if (edit.type == FileEdit.Type.OVERWRITE) {
+                for (String reminder : backend.loadReminders()) {
+                    backend.removeReminder(reminder);
+                }
+            } else if (edit.type == FileEdit.Type.REPLACE) {
+                backend.removeReminder(edit.oldString);
+            }
+            if (!edit.newString.isEmpty()) {
+                backend.addReminder(edit.newString);
+            }
+        }
+    }
+
+    /**
+     * Applies all edits of one record file, adding the records of consecutive appends with one write.
+     */
+    private void writeFile(File file, ArrayList<FileEdit> edits) throws IOException {
+        RecordFile recordFile = RecordFile.open(file);
+        ArrayList<String> appended = new ArrayList<>();
+        for (FileEdit edit : edits) {
+            if (edit.type == FileEdit.Type.APPEND) {
+                appended.add(edit.newString);
+                continue;
+            }
+            recordFile.append(appended);
+            appended.clear();
+            if (edit.type == FileEdit.Type.OVERWRITE) {
+                recordFile.overwrite(edit.newString);
+            } else {
+                recordFile.replace(edit.oldString, edit.newString);
+            }
+        }
+        recordFile.append(appended);
+    }
+
+    /**
+     * Represents one edit of a text file.
+     */
+    private static class FileEdit {
+        enum Type {
+            APPEND, OVERWRITE, REPLACE
+        }
+
+        private Type type;
+        private String oldString;
+        private String newString;
+
+        FileEdit(Type type, String oldString, String newString) {
+            this.type = type;
+            this.oldString = oldString;
+            this.newString = newString;
+        }
+    }
+}
@@ -47,6 +47,21 @@ public class Ui {
         return "Got it. I've added this word:\n" + w.toString();
     }
 
+    /**
+     * Shows the result of importing a vocabulary file.
+     * @param fileName name of the imported file
+     * @param addedWords number of words added to the bank
+     * @param skippedWords number of words that were already in the bank or repeated in the file
+     * @param rejectedLines number of lines that could not be read as a word
+     * @param milliseconds time taken by the import
+     * @return a string shown when the command is completed
+     */
+    public String showImported(String fileName, int addedWords, int skippedWords, int rejectedLines,
+                               long milliseconds) {
+        return "Got it. I've imported " + addedWords + " words from " + fileName + " in " + milliseconds + " ms.\n"
+                + skippedWords + " words already existed and " + rejectedLines + " lines were not valid.";
+    }
+
     public String showEdited(Word w) {
         return "Got it. I've edited this word:\n" + w.toString();
     }
@@ -205,19 +220,18 @@ public class Ui {
      */
     public String showRecentlyAdded(Stack<Word> wordHistory, int numberOfWordsToDisplay) {
         int numberOfWords;
-        String s = "";
+        StringBuilder s = new StringBuilder();
         if (numberOfWordsToDisplay > wordHistory.size()) {
-            s += "The number of words requested exceeds the number of words in your word bank.\n";
+            s.append("The number of words requested exceeds the number of words in your word bank.\n");
             numberOfWords = wordHistory.size();
         } else {
             numberOfWords = numberOfWordsToDisplay;
         }
-        s += ("Here are the last " + numberOfWords + " words you have added:\n");
+        s.append("Here are the last ").append(numberOfWords).append(" words you have added:\n");
         for (int i = 0; i < numberOfWords; i++) {
-            s += wordHistory.peek() + "\n";
-            wordHistory.pop();
+            s.append(wordHistory.pop()).append("\n");
         }
-        return s;
+        return s.toString();
     }
 
     /**
@@ -297,7 +311,14 @@ public class Ui {
                     + "Format: search w/WORD_TO_BE_SEARCHED";
         } else if (instruction.equals("search_begin")) {
             return "Search for words with their prefix.\n"
-                    + "Format: search_begin w/d";
+                    + "Format: search_begin w/PREFIX [o/alpha|freq] [n/LIMIT] [p/PAGE]\n"
+                    + "Words are listed alphabetically, or with the most searched first for o/freq\n"
+                    + "Add n/LIMIT to change the number of words in a page, and p/PAGE to see the next pages";
+        } else if (instruction.equals("search_meaning")) {
+            return "Search for words whose meaning or example contain some words.\n"
+                    + "Format: search_meaning w/WORDS [or WORDS]...\n"
+                    + "Words must all be found unless separated by \"or\", and words in double quotes must be found "
+                    + "one after another\nThe best matches are listed first";
         } else if (instruction.equals("search_syn")) {
             return "Search for synonyms of a word.\n"
                     + "Format:\n"
@@ -311,13 +332,18 @@ public class Ui {
             return "Add tags of a specific word.\n"
                     + "Format: tag w/WORD t/TAG...\n"
                     + "For more than one tag, please append \"t/\" before each tag";
+        } else if (instruction.equals("import")) {
+            return "Add all words of a vocabulary file.\n"
+                    + "Format: import FILE_PATH\n"
+                    + "The file may be .csv, .tsv or .jsonl, with the columns WORD, MEANING, [TAG;TAG...], [EXAMPLE]\n"
+                    + "JSON lines use the keys \"word\", \"meaning\", \"tags\" and \"example\"";
         } else if (instruction.equals("quiz")) {
             return "Take a quiz to test yourself.\n"
                     + "Format: quiz";
         } else {
             return "Here are the commands for WordUp.\n"
-                    + "add, addsyn, add_example, delete, edit, exit, freq, help, history, list, list_tags"
-                    + ", schedule, search, search_begin, search_syn, search_tag, tag, quiz\n"
+                    + "add, addsyn, add_example, delete, edit, exit, freq, help, history, import, list, list_tags"
+                    + ", schedule, search, search_begin, search_meaning, search_syn, search_tag, tag, quiz\n"
                     + "Enter \"help [command]\" for more details.";
         }
     }
@@ -384,18 +410,60 @@ public class Ui {
     }
 
     /**
-     * Shows to user all words that have a specific beginning.
-     * @param begin begin substring to be searched
-     * @param wordWithBegins list of all words that have that begin substring
+     * Shows to user one page of the words with a beginning.
+     * @param begin the beginning of the words
+     * @param wordWithBegins words of the page
+     * @param total number of words with the beginning
+     * @param offset number of words before the page
+     * @param page number of the page, starting from 1
      * @return a string shown to user when the command is completed
      */
-    public String showSearchBegin(String begin, ArrayList<String> wordWithBegins) {
+    public String showSearchBegin(String begin, ArrayList<String> wordWithBegins, int total, int offset, int page) {
         StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append((wordWithBegins.size() == 1) ? "This is a word that has " : "These are words that have ");
-        stringBuilder.append("the beginning " + begin + "\n");
+        if (wordWithBegins.isEmpty()) {
+            stringBuilder.append((total == 1) ? "There is only 1 word that has " : "There are only " + total
+                    + " words that have ");
+            stringBuilder.append("the beginning " + begin + "\n");
+            return stringBuilder.toString();
+        }
+        stringBuilder.append((total == 1) ? "This is a word that has " : "These are words that have ");
+        stringBuilder.append("the beginning " + begin);
+        if (wordWithBegins.size() < total) {
+            stringBuilder.append(" (" + (offset + 1) + "-" + (offset + wordWithBegins.size()) + " of " + total + ")");
+        }
+        stringBuilder.append("\n");
         for (String s : wordWithBegins) {
             stringBuilder.append(s + "\n");
         }
+        int remaining = total - offset - wordWithBegins.size();
+        if (remaining > 0) {
+            stringBuilder.append("There " + (remaining == 1 ? "is 1 more word" : "are " + remaining + " more words")
+                    + ", add p/" + (page + 1) + " to see the next page\n");
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Shows to user the best words whose meaning or example match a query.
+     * @param query the query as typed by user
+     * @param words all words matching the query, the best match first
+     * @param limit largest number of words shown
+     * @return string shown to user
+     */
+    public String showSearchMeaning(String query, ArrayList<String> words, int limit) {
+        if (words.isEmpty()) {
+            return "No meaning or example matches \"" + query + "\"\n";
+        }
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append((words.size() == 1) ? "This word has " : "These words have ");
+        stringBuilder.append("a meaning or example matching \"" + query + "\"");
+        if (words.size() > limit) {
+            stringBuilder.append(" (best " + limit + " of " + words.size() + ")");
+        }
+        stringBuilder.append("\n");
+        for (int i = 0; i < words.size() && i < limit; i++) {
+            stringBuilder.append(words.get(i) + "\n");
+        }
         return stringBuilder.toString();
     }
 
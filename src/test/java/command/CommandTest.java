@@ -1,6 +1,8 @@
 package command;
 
 import dictionary.Bank;
+import dictionary.MeaningQuery;
+import dictionary.PrefixTrie;
 import dictionary.Word;
 
 import exception.WordAlreadyExistsException;
@@ -11,7 +13,9 @@ import storage.Storage;
 import ui.Ui;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -214,6 +218,57 @@ public class CommandTest {
         }
     }
 
+    /**
+     * Test that the last word of the bank is found, and that the words are paged and ranked by search count.
+     */
+    @Test
+    public void searchBeginPageTest() {
+        try {
+            SearchBeginCommand searchBeginCommand = new SearchBeginCommand("o");
+            assertEquals("This is a word that has the beginning o\norange\n",
+                    searchBeginCommand.execute(ui, bank, storage));
+
+            bank.addWord(new Word("apricot", "orange fruit"));
+            bank.addWord(new Word("avocado", "green fruit"));
+            bank.increaseSearchCount("avocado");
+            searchBeginCommand = new SearchBeginCommand("a", PrefixTrie.Order.ALPHABETICAL, 2, 1);
+            assertEquals("These are words that have the beginning a (1-2 of 3)\napple\napricot\n"
+                    + "There is 1 more word, add p/2 to see the next page\n",
+                    searchBeginCommand.execute(ui, bank, storage));
+            searchBeginCommand = new SearchBeginCommand("a", PrefixTrie.Order.FREQUENCY, 2, 1);
+            assertEquals("These are words that have the beginning a (1-2 of 3)\navocado\napple\n"
+                    + "There is 1 more word, add p/2 to see the next page\n",
+                    searchBeginCommand.execute(ui, bank, storage));
+            searchBeginCommand = new SearchBeginCommand("a", PrefixTrie.Order.FREQUENCY, 2, 3);
+            assertEquals("There are only 3 words that have the beginning a\n",
+                    searchBeginCommand.execute(ui, bank, storage));
+        } catch (Exception e) {
+            fail("execute() in SearchBeginCommand failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Test that meanings and examples are searched with and, or and phrases, and kept up to date after changes.
+     */
+    @Test
+    public void searchMeaningTest() {
+        try {
+            SearchMeaningCommand searchMeaningCommand = new SearchMeaningCommand("fruit", MeaningQuery.parse("fruit"));
+            assertEquals("These words have a meaning or example matching \"fruit\"\napple\nbanana\nkiwi\norange\n",
+                    searchMeaningCommand.execute(ui, bank, storage));
+
+            bank.addExampleToWord("banana", "Monkeys love bananas.");
+            bank.editWordMeaning("kiwi", "small green fruit, sweet fruit");
+            searchMeaningCommand = new SearchMeaningCommand("query", MeaningQuery.parse("fruit green or monkeys"));
+            assertEquals("These words have a meaning or example matching \"query\"\nkiwi\nbanana\n",
+                    searchMeaningCommand.execute(ui, bank, storage));
+            searchMeaningCommand = new SearchMeaningCommand("query", MeaningQuery.parse("\"fruit green\""));
+            assertEquals("No meaning or example matches \"query\"\n", searchMeaningCommand.execute(ui, bank, storage));
+        } catch (Exception e) {
+            fail("execute() in SearchMeaningCommand failed: " + e.getMessage());
+        }
+    }
+
     /**
      * Test execute() in DeleteTagCommand.java.
      */
@@ -232,14 +287,45 @@ public class CommandTest {
         }
     }
 
+    /**
+     * Test execute() in ImportCommand.java.
+     */
+    @Test
+    public void importCommandTest() {
+        File importFile = new File(new File(Storage.DATA_FILE_PATH).getParent(), "commandTestImport.csv");
+        try {
+            Files.write(importFile.toPath(), Arrays.asList("word,meaning,tags,example",
+                    "Grape,\"small, purple fruit\",fruit;vine,",
+                    "apple,red fruit,,",
+                    "lemon,sour fruit 1,,",
+                    "melon,large fruit,fruit,a melon a day"));
+            ImportCommand importCommand = new ImportCommand(importFile.getPath());
+            String result = importCommand.execute(ui, bank, storage);
+            assertTrue(result.startsWith("Got it. I've imported 2 words from commandTestImport.csv in "));
+            assertTrue(result.endsWith("1 words already existed and 1 lines were not valid."));
+            assertEquals("small, purple fruit", bank.getWordFromWordBank("grape").getMeaning());
+            assertTrue(bank.getWordFromWordBank("grape").getTags().contains("vine"));
+            assertEquals("a melon a day", bank.getWordFromWordBank("melon").getExample());
+            assertEquals(6, bank.getWordBankSize());
+        } catch (Exception e) {
+            fail("execute() in ImportCommand failed: " + e.getMessage());
+        } finally {
+            importFile.delete();
+        }
+    }
+
     /**
      * Delete wordup test file.
      */
     @AfterEach
     public void deleteWordUpTestFile() {
+        storage.flush();
         File dataFile = new File(Storage.DATA_FILE_PATH);
         File reminderFile = new File(Storage.REMINDER_FILE_PATH);
         File excelFile = new File(Storage.EXCEL_PATH);
+        new File(Storage.JOURNAL_PATH).delete();
+        new File(Storage.SNAPSHOT_PATH).delete();
+        new File(Storage.COUNTER_PATH).delete();
         if ((dataFile.delete()) && (reminderFile.delete()) && (excelFile.delete())) {
             System.out.println("SetReminderCommandTest: File deleted successfully");
         } else {
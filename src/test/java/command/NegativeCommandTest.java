@@ -170,9 +170,13 @@ public class NegativeCommandTest {
      */
     @AfterEach
     public void deleteWordUpTestFile() {
+        storage.flush();
         File dataFile = new File(Storage.DATA_FILE_PATH);
         File reminderFile = new File(Storage.REMINDER_FILE_PATH);
         File excelFile = new File(Storage.EXCEL_PATH);
+        new File(Storage.JOURNAL_PATH).delete();
+        new File(Storage.SNAPSHOT_PATH).delete();
+        new File(Storage.COUNTER_PATH).delete();
         if ((dataFile.delete()) && (reminderFile.delete()) && (excelFile.delete())) {
             System.out.println("NegeativeCommandTest: File deleted successfully");
         } else {
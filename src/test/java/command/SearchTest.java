@@ -1,6 +1,8 @@
 package command;
 
 import dictionary.Bank;
+import dictionary.SuggestionIndex;
+import dictionary.Suggestions;
 import dictionary.Word;
 import dictionary.WordBank;
 import dictionary.WordCount;
@@ -129,14 +131,63 @@ public class SearchTest {
         }
     }
 
+    /**
+     * test that suggestions are ranked by distance and then by searches, within the limit and time budget,
+     * and that deleted words are not suggested.
+     */
+    @Test
+    public void spellCheckingRankTest() {
+        try {
+            WordBank suggestionBank = new WordBank();
+            Word coat = new Word("coat", "a garment");
+            coat.setNumberOfSearches(5);
+            for (Word word : new Word[] {new Word("cat", "an animal"), new Word("act", "a deed"),
+                new Word("cart", "a vehicle"), new Word("card", "a piece of paper"), coat}) {
+                suggestionBank.addWord(word);
+            }
+            Assertions.assertEquals("[coat, cart, cat, card]", suggestionBank.getClosedWords("caot").toString());
+            SuggestionIndex suggestionIndex = new SuggestionIndex();
+            for (Word word : suggestionBank.getWordBank().values()) {
+                suggestionIndex.add(word);
+            }
+            Suggestions suggestions = suggestionIndex.suggest("caot", 2, 1000);
+            Assertions.assertEquals("[coat, cart]", suggestions.getWords().toString());
+            Assertions.assertFalse(suggestions.isTimedOut());
+            suggestions = suggestionIndex.suggest("caot", 2, 0);
+            Assertions.assertEquals("[]", suggestions.getWords().toString());
+            Assertions.assertTrue(suggestions.isTimedOut());
+            suggestionBank.deleteWord(coat);
+            Assertions.assertEquals("[cart, cat, card]", suggestionBank.getClosedWords("caot").toString());
+        } catch (Exception e) {
+            fail("Spell checking rank failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * test that swapping 2 adjacent characters counts as a single change between close words.
+     */
+    @Test
+    public void closedWordTest() throws WordAlreadyExistsException {
+        WordBank closedWordBank = new WordBank();
+        closedWordBank.addWord(new Word("banana", "yellow fruit"));
+        closedWordBank.addWord(new Word("kiwi", "green fruit"));
+        Assertions.assertEquals("[banana]", closedWordBank.getClosedWords("abnnaa").toString());
+        Assertions.assertEquals("[kiwi]", closedWordBank.getClosedWords("ikwi").toString());
+        Assertions.assertEquals("[]", closedWordBank.getClosedWords("orange").toString());
+    }
+
     /**
      * Delete wordup test file.
      */
     @AfterEach
     public void deleteWordUpTestFile() {
+        storage.flush();
         File dataFile = new File(Storage.DATA_FILE_PATH);
         File reminderFile = new File(Storage.REMINDER_FILE_PATH);
         File excelFile = new File(Storage.EXCEL_PATH);
+        new File(Storage.JOURNAL_PATH).delete();
+        new File(Storage.SNAPSHOT_PATH).delete();
+        new File(Storage.COUNTER_PATH).delete();
         if ((dataFile.delete()) && (reminderFile.delete()) && (excelFile.delete())) {
             System.out.println("SearchTest: File deleted successfully");
         } else {
@@ -85,6 +85,7 @@ class SetReminderCommandTest {
 
     @AfterEach
     void cleanUp() {
+        storage.flush();
         File dataFile = new File(Storage.DATA_FILE_PATH);
         File reminderFile = new File(Storage.REMINDER_FILE_PATH);
         File excelFile = new File(Storage.EXCEL_PATH);
@@ -1,5 +1,6 @@
 package parser;
 
+import command.BadCommand;
 import command.Command;
 import command.AddTagCommand;
 import command.EditCommand;
@@ -7,6 +8,7 @@ import command.ExitCommand;
 import command.HelpCommand;
 import command.SearchBeginCommand;
 import command.SearchFrequencyCommand;
+import command.SearchMeaningCommand;
 import command.RecentlyAddedCommand;
 import command.SearchCommand;
 import command.DeleteCommand;
@@ -25,6 +27,7 @@ import static parser.Parser.parseHelp;
 import static parser.Parser.parseList;
 import static parser.Parser.parseReminder;
 import static parser.Parser.parseSearchBegin;
+import static parser.Parser.parseSearchMeaning;
 import static parser.Parser.parseTag;
 import static parser.Parser.parseSearch;
 import static parser.Parser.parseQuiz;
@@ -261,8 +264,24 @@ class ParserTest {
             Command returnedObject = parseSearchBegin(taskInfo);
             assertNotNull(returnedObject);
             assertTrue(returnedObject instanceof SearchBeginCommand);
+            taskInfo = new String[] {"search_begin", "w/a o/freq n/5 p/2"};
+            returnedObject = parseSearchBegin(taskInfo);
+            assertTrue(returnedObject instanceof SearchBeginCommand);
         } catch (Exception e) {
             fail("parseSearchBegin method failed with the error message: " + e.getMessage());
         }
     }
+
+    @Test
+    void parseSearchMeaningTest() {
+        try {
+            String[] taskInfo = {"search_meaning", "w/happy \"good mood\" or glad"};
+            Command returnedObject = parseSearchMeaning(taskInfo);
+            assertTrue(returnedObject instanceof SearchMeaningCommand);
+            returnedObject = Parser.parse("search_meaning w/\"good mood");
+            assertTrue(returnedObject instanceof BadCommand);
+        } catch (Exception e) {
+            fail("parseSearchMeaning method failed with the error message: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Tests that reminders are kept ordered by due time and only the next ones are scheduled.
+ */
+public class ReminderSchedulerTest {
+
+    private Reminder createReminder(long dueTime, String word) {
+        return new Reminder(new Date(dueTime), new ArrayList<>(Collections.singletonList(word)), word);
+    }
+
+    /**
+     * Test that past-due reminders are shown in one batch, and that reminders beyond the window stay pending.
+     */
+    @Test
+    public void slidingWindowTest() throws Exception {
+        LinkedBlockingQueue<List<Reminder>> shown = new LinkedBlockingQueue<>();
+        ReminderScheduler scheduler = new ReminderScheduler(shown::add);
+        try {
+            long now = System.currentTimeMillis();
+            long day = 24 * 60 * 60 * 1000L;
+            scheduler.addAll(Arrays.asList(createReminder(now - day, "old"), createReminder(now + 30 * day, "later"),
+                    createReminder(now - 1000, "older"), createReminder(now + 200, "soon")));
+
+            List<Reminder> pastDue = shown.poll(5, TimeUnit.SECONDS);
+            assertNotNull(pastDue);
+            assertEquals(2, pastDue.size());
+            List<Reminder> soon = shown.poll(5, TimeUnit.SECONDS);
+            assertNotNull(soon);
+            assertEquals("soon", soon.get(0).getReminderInfo());
+            assertEquals(1, scheduler.getScheduledCount());
+            assertEquals(1, scheduler.getPendingCount());
+        } finally {
+            scheduler.cancel();
+        }
+    }
+}
@@ -0,0 +1,565 @@
+package storage;
+
+import dictionary.Bank;
+import dictionary.Word;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Stack;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the bank is saved and loaded back correctly.
+ */
+public class StorageTest {
+    private Storage storage;
+    private Bank bank;
+
+    @BeforeEach
+    public void createStorageTestFile() {
+        storage = new Storage("storageTestData.txt", "storageTest.xlsx", "storageTestReminder.txt");
+        bank = storage.loadBank();
+    }
+
+    private Bank reloadBank() {
+        storage.flush();
+        return new Storage("storageTestData.txt", "storageTest.xlsx", "storageTestReminder.txt").loadBank();
+    }
+
+    /**
+     * Test that operations appended to the journal are replayed when loading.
+     */
+    @Test
+    public void writeChangesTest() throws Exception {
+        bank.addWordToBank(new Word("apple", "red fruit"));
+        bank.addWordToBank(new Word("kiwi", "green fruit"));
+        bank.addWordToSomeTags("apple", new ArrayList<>(Collections.singletonList("fruit")));
+        storage.writeChanges(bank);
+        assertFalse(bank.getChanges().hasOperations());
+
+        bank.editWordMeaning("kiwi", "green\tfruit");
+        bank.addExampleToWord("kiwi", "kiwi is sour");
+        bank.increaseSearchCount("kiwi");
+        bank.deleteWordFromBank(bank.getWordFromWordBank("apple"));
+        storage.writeChanges(bank);
+
+        Bank loadedBank = reloadBank();
+        assertFalse(loadedBank.getWordBankObject().contains("apple"));
+        assertEquals("green\tfruit", loadedBank.searchWordBankForMeaning("kiwi"));
+        assertEquals("kiwi is sour", loadedBank.searchWordBankForExample("kiwi"));
+        assertEquals(1, loadedBank.getWordFromWordBank("kiwi").getNumberOfSearches());
+        assertArrayEquals(new String[0], loadedBank.getAllTags());
+        assertFalse(loadedBank.getChanges().hasOperations());
+    }
+
+    /**
+     * Test that a burst of changes handed to the background thread is all saved once flushed.
+     */
+    @Test
+    public void flushBurstTest() throws Exception {
+        bank.addWordToBank(new Word("apple", "red fruit"));
+        storage.writeChanges(bank);
+        for (int i = 0; i < 20; i++) {
+            bank.addWordToSomeTags("apple", new ArrayList<>(Collections.singletonList("tag" + (char) ('a' + i))));
+            storage.writeChanges(bank);
+        }
+        storage.flush();
+        assertTrue(new File(Storage.JOURNAL_PATH).exists());
+
+        Bank loadedBank = reloadBank();
+        assertEquals(20, loadedBank.getWordFromWordBank("apple").getTags().size());
+    }
+
+    /**
+     * Test that a snapshot read back from its file holds the same words, tags, synonyms and search counts.
+     */
+    @Test
+    public void snapshotFileTest() throws Exception {
+        bank.addWordToBank(new Word("apple", "red fruit"));
+        bank.addWordToBank(new Word("kiwi", "green fruit"));
+        bank.addExampleToWord("kiwi", "kiwi is sour");
+        bank.increaseSearchCount("kiwi");
+        bank.addWordToSomeTags("apple", new ArrayList<>(Arrays.asList("fruit", "red")));
+        bank.addWordToSomeTags("kiwi", new ArrayList<>(Collections.singletonList("fruit")));
+        bank.addWordToSomeSynonyms("apple", new ArrayList<>(Arrays.asList("pome", "kiwi")));
+        SnapshotFile snapshotFile = new SnapshotFile(new File(Storage.SNAPSHOT_PATH));
+        snapshotFile.write(BankSnapshot.capture(bank));
+
+        Bank loadedBank = snapshotFile.read().toBank();
+        assertEquals("red fruit", loadedBank.searchWordBankForMeaning("apple"));
+        assertEquals("kiwi is sour", loadedBank.searchWordBankForExample("kiwi"));
+        assertEquals(1, loadedBank.getWordFromWordBank("kiwi").getNumberOfSearches());
+        assertEquals(bank.getWordFromWordBank("apple").getTags(), loadedBank.getWordFromWordBank("apple").getTags());
+        assertArrayEquals(bank.getAllTags(), loadedBank.getAllTags());
+        assertEquals(new HashSet<>(Arrays.asList("apple", "pome")),
+                new HashSet<>(loadedBank.getSynonymsOfWord("kiwi")));
+    }
+
+    /**
+     * Test that a snapshot with a damaged or missing block is refused instead of loading a damaged bank.
+     */
+    @Test
+    public void damagedSnapshotTest() throws Exception {
+        for (int i = 0; i < 5000; i++) {
+            bank.addWordToBank(new Word("word" + i, "meaning of word number " + i));
+        }
+        SnapshotFile snapshotFile = new SnapshotFile(new File(Storage.SNAPSHOT_PATH));
+        snapshotFile.write(BankSnapshot.capture(bank));
+        assertEquals("meaning of word number 4999",
+                snapshotFile.read().toBank().searchWordBankForMeaning("word4999"));
+
+        byte[] bytes = Files.readAllBytes(Paths.get(Storage.SNAPSHOT_PATH));
+        File damagedFile = new File(Storage.SNAPSHOT_PATH + ".damaged");
+        try {
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(damagedFile.toPath(), bytes);
+            assertThrows(IOException.class, () -> new SnapshotFile(damagedFile).read());
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(damagedFile.toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+            assertThrows(IOException.class, () -> new SnapshotFile(damagedFile).read());
+        } finally {
+            damagedFile.delete();
+        }
+    }
+
+    /**
+     * Test that a sharded snapshot is read back whole, and that a later snapshot only rewrites changed shards.
+     */
+    @Test
+    public void shardedSnapshotTest() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            bank.addWordToBank(new Word("word" + i, "meaning " + i));
+        }
+        bank.addWordToSomeTags("word7", new ArrayList<>(Arrays.asList("seven", "odd")));
+        bank.addWordToSomeSynonyms("word1", new ArrayList<>(Collections.singletonList("word2")));
+        ShardedSnapshotFile shardedSnapshotFile = new ShardedSnapshotFile(new File(Storage.SHARDS_PATH));
+        BankSnapshot snapshot = BankSnapshot.capture(bank);
+        snapshot.setSequence(42);
+        shardedSnapshotFile.write(snapshot, true);
+        bank.getChanges().clearChangedRows();
+
+        Bank loadedBank = shardedSnapshotFile.read();
+        assertEquals(42, shardedSnapshotFile.getSequence());
+        assertArrayEquals(bank.getWordBankData().keySet().toArray(), loadedBank.getWordBankData().keySet().toArray());
+        assertEquals(bank.getWordFromWordBank("word7").getTags(), loadedBank.getWordFromWordBank("word7").getTags());
+        assertEquals(Collections.singletonList("word2"), loadedBank.getSynonymsOfWord("word1"));
+
+        int unchangedShard = ShardedSnapshotFile.shardOf("word0");
+        String changedWord = "word1";
+        for (int i = 1; ShardedSnapshotFile.shardOf(changedWord) == unchangedShard; i++) {
+            changedWord = "word" + i;
+        }
+        File unchangedShardFile = shardedSnapshotFile.getShardFile(unchangedShard);
+        assertTrue(unchangedShardFile.delete());
+        bank.editWordMeaning(changedWord, "new meaning");
+        shardedSnapshotFile.write(BankSnapshot.capture(bank), false);
+        assertFalse(unchangedShardFile.exists());
+        snapshot.setSequence(43);
+        shardedSnapshotFile.write(snapshot, true);
+        assertEquals("meaning 0", shardedSnapshotFile.read().searchWordBankForMeaning("word0"));
+    }
+
+    /**
+     * Test that words read lazily from a sharded snapshot read their meanings and examples from the shard files,
+     * and keep an edited meaning once the shard is replaced.
+     */
+    @Test
+    public void lazyShardedSnapshotTest() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            bank.addWordToBank(new Word("word" + i, "meaning " + i));
+        }
+        bank.addExampleToWord("word3", "third example");
+        ShardedSnapshotFile shardedSnapshotFile = new ShardedSnapshotFile(new File(Storage.SHARDS_PATH));
+        shardedSnapshotFile.write(BankSnapshot.capture(bank), true);
+        bank.getChanges().clearChangedRows();
+
+        Bank loadedBank = shardedSnapshotFile.readLazily(2);
+        for (int i = 0; i < 50; i++) {
+            assertEquals("meaning " + i, loadedBank.searchWordBankForMeaning("word" + i));
+        }
+        assertEquals("third example", loadedBank.searchWordBankForExample("word3"));
+        assertNull(loadedBank.getWordFromWordBank("word4").getExample());
+
+        loadedBank.editWordMeaning("word3", "new meaning");
+        File oldShardFile = shardedSnapshotFile.getShardFile(ShardedSnapshotFile.shardOf("word3"));
+        shardedSnapshotFile.write(BankSnapshot.capture(loadedBank), false);
+        assertFalse(oldShardFile.equals(shardedSnapshotFile.getShardFile(ShardedSnapshotFile.shardOf("word3"))));
+        assertEquals("new meaning", loadedBank.searchWordBankForMeaning("word3"));
+        assertEquals("third example", loadedBank.searchWordBankForExample("word3"));
+        Bank rereadBank = shardedSnapshotFile.read();
+        assertEquals("new meaning", rereadBank.searchWordBankForMeaning("word3"));
+        for (int i = 4; i < 50; i++) {
+            assertEquals("meaning " + i, rereadBank.searchWordBankForMeaning("word" + i));
+        }
+    }
+
+    /**
+     * Test that the operations found by comparing two versions of the excel file turn a bank with the old rows
+     * into one with the new rows.
+     */
+    @Test
+    public void excelDiffTest() throws Exception {
+        Bank oldBank = new Bank();
+        oldBank.addWordToBank(new Word("apple", "red fruit"));
+        oldBank.addWordToBank(new Word("kiwi", "green fruit"));
+        oldBank.addWordToBank(new Word("pear", "pear fruit"));
+        oldBank.addWordToSomeTags("apple", new ArrayList<>(Arrays.asList("fruit", "red")));
+        Bank newBank = new Bank();
+        newBank.addWordToBank(new Word("apple", "sweet fruit"));
+        newBank.addWordToBank(new Word("kiwi", "green fruit"));
+        newBank.addWordToBank(new Word("lime", "sour fruit"));
+        newBank.addExampleToWord("kiwi", "kiwi is sour");
+        newBank.addWordToSomeTags("apple", new ArrayList<>(Arrays.asList("fruit", "sweet")));
+        newBank.addWordToSomeSynonyms("lime", new ArrayList<>(Collections.singletonList("kiwi")));
+
+        bank = new Bank();
+        bank.addWordToBank(new Word("apple", "red fruit"));
+        bank.addWordToBank(new Word("kiwi", "green fruit"));
+        bank.addWordToBank(new Word("pear", "pear fruit"));
+        bank.addWordToBank(new Word("fig", "added in wordup"));
+        bank.addWordToSomeTags("apple", new ArrayList<>(Arrays.asList("fruit", "red")));
+        storage.applyExternalChanges(bank, ExcelFileWatcher.diff(oldBank, newBank));
+
+        assertEquals("sweet fruit", bank.searchWordBankForMeaning("apple"));
+        assertEquals("kiwi is sour", bank.searchWordBankForExample("kiwi"));
+        assertEquals("sour fruit", bank.searchWordBankForMeaning("lime"));
+        assertEquals("added in wordup", bank.searchWordBankForMeaning("fig"));
+        assertFalse(bank.getWordBankObject().contains("pear"));
+        assertEquals(new HashSet<>(Arrays.asList("fruit", "sweet")), bank.getWordFromWordBank("apple").getTags());
+        assertArrayEquals(new String[] {"apple"}, bank.getWordsOfTag("sweet"));
+        assertEquals(Collections.singletonList("kiwi"), bank.getSynonymsOfWord("lime"));
+        assertTrue(ExcelFileWatcher.diff(newBank, newBank).isEmpty());
+    }
+
+    /**
+     * Test that the excel file written by the bank is streamed back into an equal bank.
+     */
+    @Test
+    public void excelStreamReaderTest() throws Exception {
+        bank.addWordToBank(new Word("apple", "red fruit"));
+        bank.addWordToBank(new Word("kiwi", "green fruit"));
+        bank.addExampleToWord("kiwi", "kiwi is sour");
+        bank.addWordToSomeTags("apple", new ArrayList<>(Arrays.asList("fruit", "red")));
+        bank.addWordToSomeTags("kiwi", new ArrayList<>(Collections.singletonList("fruit")));
+        bank.addWordToSomeSynonyms("apple", new ArrayList<>(Collections.singletonList("pome")));
+        new ExcelStreamWriter(Storage.EXCEL_PATH).write(bank);
+
+        Bank loadedBank = new Bank();
+        ExcelStreamReader reader = new ExcelStreamReader(new File(Storage.EXCEL_PATH));
+        reader.read(loadedBank);
+        assertTrue(reader.getTimer().toString().contains("merge"));
+        assertEquals("red fruit", loadedBank.searchWordBankForMeaning("apple"));
+        assertEquals("kiwi is sour", loadedBank.searchWordBankForExample("kiwi"));
+        assertEquals(bank.getWordFromWordBank("apple").getTags(), loadedBank.getWordFromWordBank("apple").getTags());
+        assertArrayEquals(bank.getAllTags(), loadedBank.getAllTags());
+        assertEquals(Collections.singletonList("pome"), loadedBank.getSynonymsOfWord("apple"));
+    }
+
+    /**
+     * Test that the excel file written straight from a snapshot is streamed back into an equal bank.
+     */
+    @Test
+    public void excelSnapshotWriterTest() throws Exception {
+        bank.addWordToBank(new Word("apple", "red fruit"));
+        bank.addWordToBank(new Word("kiwi", "green fruit"));
+        bank.addExampleToWord("kiwi", "kiwi is sour");
+        bank.addWordToSomeTags("apple", new ArrayList<>(Arrays.asList("fruit", "red")));
+        bank.addWordToSomeTags("kiwi", new ArrayList<>(Collections.singletonList("fruit")));
+        bank.addWordToSomeSynonyms("apple", new ArrayList<>(Collections.singletonList("pome")));
+        new ExcelStreamWriter(Storage.EXCEL_PATH).write(BankSnapshot.capture(bank));
+
+        Bank loadedBank = new Bank();
+        new ExcelStreamReader(new File(Storage.EXCEL_PATH)).read(loadedBank);
+        assertEquals("red fruit", loadedBank.searchWordBankForMeaning("apple"));
+        assertEquals("kiwi is sour", loadedBank.searchWordBankForExample("kiwi"));
+        assertEquals(bank.getWordFromWordBank("apple").getTags(), loadedBank.getWordFromWordBank("apple").getTags());
+        assertArrayEquals(bank.getAllTags(), loadedBank.getAllTags());
+        assertEquals(new HashSet<>(Arrays.asList("apple", "kiwi")),
+                new HashSet<>(Arrays.asList(loadedBank.getWordsOfTag("fruit"))));
+        assertEquals(Collections.singletonList("pome"), loadedBank.getSynonymsOfWord("apple"));
+    }
+
+    /**
+     * Test that the tag and synonym rows of a word whose row was deleted from the excel file are skipped.
+     */
+    @Test
+    public void excelDeletedWordRowTest() throws Exception {
+        Word apple = new Word("apple", "red fruit");
+        bank.addWordToBank(apple);
+        bank.addWordToBank(new Word("kiwi", "green fruit"));
+        bank.addWordToSomeTags("apple", new ArrayList<>(Collections.singletonList("fruit")));
+        bank.addWordToSomeTags("kiwi", new ArrayList<>(Collections.singletonList("fruit")));
+        bank.addWordToSomeSynonyms("apple", new ArrayList<>(Collections.singletonList("pome")));
+        Bank oldBank = new Bank();
+        new ExcelStreamWriter(Storage.EXCEL_PATH).write(bank);
+        new ExcelStreamReader(new File(Storage.EXCEL_PATH)).read(oldBank);
+        bank.getWordBankObject().deleteWord(apple);
+        new ExcelStreamWriter(Storage.EXCEL_PATH).write(bank);
+
+        Bank loadedBank = new Bank();
+        new ExcelStreamReader(new File(Storage.EXCEL_PATH)).read(loadedBank);
+        assertFalse(loadedBank.getWordBankObject().contains("apple"));
+        assertArrayEquals(new String[] {"kiwi"}, loadedBank.getTagBank().getAllWordsOfTag("fruit"));
+        assertTrue(loadedBank.getSynonymBank().isEmpty());
+        assertEquals("[DELETE apple]", ExcelFileWatcher.diff(oldBank, loadedBank).toString());
+    }
+
+    /**
+     * Test that the time taken by each phase of loading the bank and the reminders is kept.
+     */
+    @Test
+    public void loadTimerTest() {
+        assertNull(storage.getLoadTimer());
+        storage.loadBankAndReminders();
+        String timings = storage.getLoadTimer().toString();
+        for (String phase : new String[] {"bank", "reminders", "reminder setup", "total"}) {
+            assertTrue(timings.contains(phase + " "), timings);
+        }
+    }
+
+    /**
+     * Test that the excel file is exported with the changes not in a snapshot yet when WordUp closes.
+     */
+    @Test
+    public void exportOnCloseTest() throws Exception {
+        bank.addWord(new Word("apple", "red fruit"));
+        storage.writeChanges(bank);
+        storage.flushAndExport(bank);
+
+        Bank exportedBank = new Bank();
+        new ExcelStreamReader(new File(Storage.EXCEL_PATH)).read(exportedBank);
+        assertEquals("red fruit", exportedBank.searchWordBankForMeaning("apple"));
+    }
+
+    /**
+     * Test that all file edits and bank changes of a transaction are written when it is committed.
+     */
+    @Test
+    public void transactionTest() throws Exception {
+        bank.addWordToBank(new Word("apple", "red fruit"));
+        bank.addWordToBank(new Word("kiwi", "green fruit"));
+        StorageTransaction transaction = storage.beginTransaction();
+        transaction.writeFile("apple: red fruit", true, "wordup");
+        transaction.writeFile("kiwi: green fruit", true, "wordup");
+        transaction.updateFile("apple: red fruit", "apple: sweet fruit", "wordup");
+        transaction.writeChanges(bank);
+        transaction.commit();
+        assertFalse(bank.getChanges().hasOperations());
+
+        Stack<Word> history = storage.loadHistoryFile();
+        assertEquals(2, history.size());
+        assertEquals("kiwi", history.pop().getWordString());
+        assertEquals("sweet fruit", history.pop().getMeaning());
+        assertTrue(reloadBank().getWordBankObject().contains("kiwi"));
+    }
+
+    /**
+     * Test that edits and deletes of records are appended and folded away once the file is compacted.
+     */
+    @Test
+    public void recordFileTest() throws Exception {
+        RecordFile recordFile = RecordFile.open(new File(Storage.DATA_FILE_PATH));
+        recordFile.append(Arrays.asList("apple: red fruit", "kiwi: green fruit", "#tag: not a command"));
+        recordFile.replace("apple: red fruit", "apple: sweet fruit");
+        recordFile.replace("kiwi: green fruit", "");
+        assertEquals(Arrays.asList("apple: sweet fruit", "#tag: not a command"), recordFile.readAll());
+        assertEquals(5, Files.readAllLines(Paths.get(Storage.DATA_FILE_PATH)).size());
+        assertEquals("apple: sweet fruit", recordFile.readAt(recordFile.getOffsets()[0]));
+
+        for (int i = 0; i < 300; i++) {
+            recordFile.append(Collections.singletonList("word" + i + ": meaning"));
+            recordFile.replace("word" + i + ": meaning", "");
+        }
+        assertEquals(Arrays.asList("apple: sweet fruit", "#tag: not a command"), recordFile.readAll());
+        assertTrue(Files.readAllLines(Paths.get(Storage.DATA_FILE_PATH)).size() < 300);
+        assertEquals(Arrays.asList("#tag: not a command", "apple: sweet fruit"), recordFile.readLast(5));
+    }
+
+    /**
+     * Test that removing a reminder set twice with the same text keeps the other one.
+     */
+    @Test
+    public void removeDuplicateReminderTest() throws Exception {
+        storage.writeFile("01-01-2030 1200 | apple", true, "reminder");
+        storage.writeFile("01-01-2030 1200 | apple", true, "reminder");
+        storage.writeFile("02-01-2030 1200 | kiwi", true, "reminder");
+        storage.updateFile("01-01-2030 1200 | apple", "", "reminder");
+        storage.flush();
+        assertEquals(Arrays.asList("01-01-2030 1200 | apple", "02-01-2030 1200 | kiwi"),
+                RecordFile.open(new File(Storage.REMINDER_FILE_PATH)).readAll());
+    }
+
+    /**
+     * Test that the last records are read backwards across blocks, skipping deleted records and using edited texts.
+     */
+    @Test
+    public void readLastTest() throws Exception {
+        RecordFile recordFile = RecordFile.open(new File(Storage.DATA_FILE_PATH));
+        ArrayList<String> texts = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            texts.add("word" + i + ": meaning number " + i);
+        }
+        recordFile.append(texts);
+        recordFile.replace("word1999: meaning number 1999", "");
+        recordFile.replace("word1997: meaning number 1997", "word1997: edited");
+        recordFile.replace("word3: meaning number 3", "word3: edited");
+
+        assertEquals(Arrays.asList("word1998: meaning number 1998", "word1997: edited",
+                "word1996: meaning number 1996"), recordFile.readLast(3));
+        List<String> allTexts = recordFile.readLast(5000);
+        assertEquals(1999, allTexts.size());
+        assertEquals("word3: edited", allTexts.get(1995));
+        assertEquals("word0: meaning number 0", allTexts.get(1998));
+    }
+
+    /**
+     * Test that changes that leave the bank as it was record no operations and keep the versions of its sections.
+     */
+    @Test
+    public void redundantChangeTest() throws Exception {
+        bank.addWordToBank(new Word("apple", "red fruit"));
+        bank.addExampleToWord("apple", "an apple a day");
+        bank.addWordToSomeTags("apple", new ArrayList<>(Collections.singletonList("fruit")));
+        bank.addWordToSomeSynonyms("apple", new ArrayList<>(Collections.singletonList("pome")));
+        storage.writeChanges(bank);
+        long[] versions = bank.getChanges().getVersions();
+
+        bank.addWordToSomeTags("apple", new ArrayList<>(Collections.singletonList("fruit")));
+        bank.deleteTags("apple", new ArrayList<>(Collections.singletonList("red")), new ArrayList<>(),
+                new ArrayList<>());
+        bank.addExampleToWord("apple", "an apple a day");
+        bank.editWordMeaning("apple", "red fruit");
+        bank.addWordToSomeSynonyms("apple", new ArrayList<>(Collections.singletonList("pome")));
+        assertFalse(bank.getChanges().hasOperations());
+        assertFalse(bank.getChanges().isChangedSince(versions));
+
+        bank.addWordToSomeTags("apple", new ArrayList<>(Arrays.asList("fruit", "red")));
+        assertTrue(bank.getChanges().isChangedSince(versions));
+        assertEquals(1, bank.getChanges().drainOperations().size());
+    }
+
+    /**
+     * Test that joining a word to a set of synonyms marks every word of the set as changed.
+     */
+    @Test
+    public void changedSynonymSetTest() throws Exception {
+        bank.addWordToBank(new Word("apple", "red fruit"));
+        bank.addWordToSomeSynonyms("apple", new ArrayList<>(Arrays.asList("pome", "malus")));
+        bank.getChanges().clearChangedRows();
+
+        bank.addSynonymToWord("crab apple", "pome");
+        assertEquals(new HashSet<>(Arrays.asList("apple", "pome", "malus", "crab apple")),
+                new HashSet<>(bank.getChanges().getChangedSynonyms()));
+    }
+
+    /**
+     * Test that a record torn at the end of the journal is dropped instead of failing the load.
+     */
+    @Test
+    public void tornJournalTest() throws Exception {
+        bank.addWordToBank(new Word("apple", "red fruit"));
+        bank.addWordToSomeSynonyms("apple", new ArrayList<>(Collections.singletonList("pome")));
+        storage.writeChanges(bank);
+        storage.flush();
+        try (FileOutputStream out = new FileOutputStream(Storage.JOURNAL_PATH, true)) {
+            out.write(new byte[] {0, 0, 0, 42, 1, 2});
+        }
+
+        Bank loadedBank = reloadBank();
+        assertTrue(loadedBank.getWordBankObject().contains("apple"));
+        assertEquals(Collections.singletonList("pome"), loadedBank.getSynonymsOfWord("apple"));
+    }
+
+    /**
+     * Test that search counts are saved in batches to the counter file, and replace the counts of the snapshot.
+     */
+    @Test
+    public void searchCountTest() throws Exception {
+        bank.addWordToBank(new Word("apple", "red fruit"));
+        storage.writeChanges(bank);
+        storage.flush();
+        long journalLength = new File(Storage.JOURNAL_PATH).length();
+        for (int i = 0; i < 3; i++) {
+            bank.increaseSearchCount("apple");
+            storage.writeChanges(bank);
+        }
+        storage.flush();
+        assertEquals(journalLength, new File(Storage.JOURNAL_PATH).length());
+        assertEquals(3, reloadBank().getWordFromWordBank("apple").getNumberOfSearches());
+
+        CounterFile counterFile = new CounterFile(new File(Storage.COUNTER_PATH));
+        for (int i = 4; i < 3000; i++) {
+            counterFile.append(Collections.singletonMap("apple", i));
+        }
+        assertEquals(Collections.singletonMap("apple", 2999), new CounterFile(new File(Storage.COUNTER_PATH)).read());
+        assertTrue(new File(Storage.COUNTER_PATH).length() < 3000 * 10);
+        assertEquals(2999, reloadBank().getWordCountObject().getWordCount().lastKey());
+    }
+
+    /**
+     * Test that changes committed to the key-value store are loaded back, and the reminders with them
+     * ordered by due time.
+     */
+    @Test
+    public void keyValueBackendTest() throws Exception {
+        File storeFile = new File(Storage.STORE_PATH);
+        KeyValueBackend backend = KeyValueBackend.open(storeFile, new File(Storage.EXCEL_PATH),
+                new File(Storage.REMINDER_FILE_PATH));
+        backend.load();
+        backend.upsertWord("apple", "red fruit");
+        backend.upsertWord("kiwi", "green fruit");
+        backend.upsertWord("apple", "sweet fruit");
+        backend.setExample("kiwi", "kiwi is sour");
+        backend.addTag("apple", "fruit");
+        backend.addTag("kiwi", "fruit");
+        backend.addSynonym("apple", "pome");
+        backend.saveSearchCounts(Collections.singletonMap("kiwi", 1));
+        backend.addReminder("01-01-2030 1200 | apple");
+        backend.addReminder("31-12-2029 1200 | kiwi");
+        backend.commit();
+        backend.deleteWord("kiwi");
+        backend.upsertWord("kiwi", "green fruit");
+        backend.commit();
+        backend.close();
+
+        backend = KeyValueBackend.open(storeFile, new File(Storage.EXCEL_PATH), new File(Storage.REMINDER_FILE_PATH));
+        Bank loadedBank = backend.load();
+        assertEquals("sweet fruit", loadedBank.searchWordBankForMeaning("apple"));
+        assertEquals(0, loadedBank.getWordFromWordBank("kiwi").getNumberOfSearches());
+        assertTrue(loadedBank.getWordFromWordBank("kiwi").getTags().isEmpty());
+        assertArrayEquals(new String[] {"apple"}, loadedBank.getWordsOfTag("fruit"));
+        assertEquals(Collections.singletonList("pome"), loadedBank.getSynonymsOfWord("apple"));
+        assertEquals(Arrays.asList("31-12-2029 1200 | kiwi", "01-01-2030 1200 | apple"), backend.loadReminders());
+        backend.close();
+        storeFile.delete();
+    }
+
+    @AfterEach
+    public void deleteStorageTestFile() {
+        storage.flush();
+        new File(Storage.DATA_FILE_PATH).delete();
+        new File(Storage.REMINDER_FILE_PATH).delete();
+        new File(Storage.EXCEL_PATH).delete();
+        new File(Storage.JOURNAL_PATH).delete();
+        new File(Storage.SNAPSHOT_PATH).delete();
+        new File(Storage.COUNTER_PATH).delete();
+        new ShardedSnapshotFile(new File(Storage.SHARDS_PATH)).delete();
+    }
+}